@@ -0,0 +1,146 @@
+package com.monkeyintrouble.benchmarks;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.monkeyintrouble.map.GameMap;
+import com.monkeyintrouble.map.TileType;
+import com.monkeyintrouble.world.GameWorld;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameMapBenchmark {
+    private static final long SEED = 42;
+    private static final int PROBES = 1024; // Power of two so the probe index can wrap with a mask
+    private static final float PLAYER_SIZE = 24;
+
+    // Number of copies of level 1's main room (1 is level 1 itself)
+    @Param({"1", "10", "100"})
+    public int mapScale;
+
+    // Entity counts per copy of the main room
+    @Param({"1", "2"})
+    public int sawTraps;
+
+    @Param({"3", "8"})
+    public int fires;
+
+    // Box traps on top of the one level 1's main room already has: a trap tile, its trap
+    // box, a button and a box to push onto the button
+    @Param({"0", "2"})
+    public int boxTraps;
+
+    private GameMap map;
+    private Rectangle[] anyProbes;      // Anywhere in the world, walls included
+    private Rectangle[] walkableProbes; // Player-sized, each inside one walkable tile that is not a teleporter
+    private int[] tileIds;
+    private int probe;
+    private Rectangle pushFromLeft;
+    private Rectangle pushFromRight;
+
+    @Setup
+    public void setUp() {
+        map = SyntheticMaps.create(mapScale, sawTraps, fires, boxTraps, SEED);
+        // Start position of level 1, which is inside the first copy of the main room
+        new GameWorld(map, 142, 62);
+
+        int width = map.getWidthInTiles();
+        int height = map.getHeightInTiles();
+        int tileSize = map.getTileSize();
+        Random random = new Random(SEED);
+
+        anyProbes = new Rectangle[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            anyProbes[i] = new Rectangle(random.nextFloat() * width * tileSize, random.nextFloat() * height * tileSize, PLAYER_SIZE, PLAYER_SIZE);
+        }
+
+        walkableProbes = new Rectangle[PROBES];
+        Rectangle cell = new Rectangle(0, 0, tileSize, tileSize);
+        for (int i = 0; i < PROBES; ) {
+            int col = random.nextInt(width);
+            int row = random.nextInt(height);
+            cell.setPosition(col * tileSize, row * tileSize);
+            if (map.getDisplayTile(col, row) >= 0 && !map.isColliding(cell) && !isTeleporter(map.getDisplayTile(col, row))) {
+                walkableProbes[i++] = new Rectangle(col * tileSize + 4, row * tileSize + 4, PLAYER_SIZE, PLAYER_SIZE);
+            }
+        }
+
+        tileIds = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            tileIds[i] = Math.max(map.getDisplayTile(random.nextInt(width), random.nextInt(height)), 0);
+        }
+
+        pushFromLeft = new Rectangle(0, 0, PLAYER_SIZE, PLAYER_SIZE);
+        pushFromRight = new Rectangle(0, 0, PLAYER_SIZE, PLAYER_SIZE);
+    }
+
+    // Teleporting starts a cooldown that only update() winds down, which would turn every
+    // later handleAssetCollision call into an early return
+    private static boolean isTeleporter(int tileId) {
+        return tileId == 34 || tileId == 52 || tileId == 67 || tileId == 68 || tileId == 69;
+    }
+
+    private int nextProbe() {
+        probe = (probe + 1) & (PROBES - 1);
+        return probe;
+    }
+
+    @Benchmark
+    public boolean isColliding() {
+        return map.isColliding(anyProbes[nextProbe()]);
+    }
+
+    @Benchmark
+    public boolean isCollidingWithHazards() {
+        return map.isCollidingWithHazards(anyProbes[nextProbe()]);
+    }
+
+    @Benchmark
+    public Vector2 handleAssetCollision() {
+        return map.handleAssetCollision(walkableProbes[nextProbe()]);
+    }
+
+    @Benchmark
+    public GameMap update() {
+        map.update(GameWorld.TICK);
+        return map;
+    }
+
+    // Pushes the last resident box one pixel right and back again, so the map ends each
+    // invocation in the state it started in
+    @Benchmark
+    public boolean tryPushBox() {
+        Rectangle box = map.getBoxes().peek().bounds;
+        pushFromLeft.setPosition(box.x - PLAYER_SIZE + 1, box.y + 4);
+        boolean pushed = map.tryPushBox(pushFromLeft, 1, 0);
+        pushFromRight.setPosition(box.x + box.width - 1, box.y + 4);
+        return map.tryPushBox(pushFromRight, -1, 0) & pushed;
+    }
+
+    @Benchmark
+    public GameMap reset() {
+        map.reset();
+        return map;
+    }
+
+    @Benchmark
+    public TileType tileTypeFromId() {
+        return TileType.fromId(tileIds[nextProbe()]);
+    }
+}
@@ -0,0 +1,147 @@
+package com.monkeyintrouble.benchmarks;
+
+import com.monkeyintrouble.map.GameMap;
+import com.monkeyintrouble.map.MapLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SyntheticMaps {
+    // Level 1's main room is 12 rows by up to 16 columns; scaled maps tile it in blocks of that size
+    private static final int BLOCK_HEIGHT = 12;
+    private static final int BLOCK_WIDTH = 16;
+
+    private static final int FLOOR = 1;
+    private static final int WALL_TOP = 9;
+    private static final int SAW_LEFT = 43;
+    private static final int SAW_MIDDLE = 44;
+    private static final int SAW_RIGHT = 45;
+    private static final int FIRE_START = 37;
+    private static final int TORCH = 35;
+    private static final int TRAP = 31;
+    private static final int TRAP_BOX = 39;
+    private static final int BUTTON = 32;
+    private static final int PUSHABLE_BOX = 42;
+
+    // Builds a map whose main room is level 1's main room repeated `scale` times, with the
+    // given number of saw traps, fire spawn points and box traps placed on plain floor in
+    // every copy. Level 1's own saw and fires are taken out first so the counts are exact;
+    // its box, buttons, doors and teleporters are kept. The same seed gives the same map.
+    public static GameMap create(int scale, int sawTraps, int fires, int boxTraps, long seed) {
+        int blockRows = blockRows(scale);
+        int blockCols = scale / blockRows;
+        int[][] level = MapLoader.getLevelData();
+        int[][] main = new int[blockRows * BLOCK_HEIGHT][blockCols * BLOCK_WIDTH];
+        Random random = new Random(seed);
+
+        for (int blockRow = 0; blockRow < blockRows; blockRow++) {
+            for (int blockCol = 0; blockCol < blockCols; blockCol++) {
+                int top = blockRow * BLOCK_HEIGHT;
+                int left = blockCol * BLOCK_WIDTH;
+                for (int y = 0; y < level.length; y++) {
+                    for (int x = 0; x < level[y].length; x++) {
+                        main[top + y][left + x] = stripEntity(level[y][x]);
+                    }
+                }
+                placeEntities(main, top, left, sawTraps, fires, boxTraps, random);
+            }
+        }
+
+        int[][] rightTop = MapLoader.getRightTopRoomData();
+        int[][] rightBottom = MapLoader.getRightBottomRoomData();
+        stripEntities(rightTop);
+        stripEntities(rightBottom);
+        return new GameMap(main, rightTop, rightBottom);
+    }
+
+    // Rows of blocks for the most square layout with exactly `scale` blocks (10 -> 2x5, 100 -> 10x10)
+    private static int blockRows(int scale) {
+        if (scale < 1) {
+            throw new IllegalArgumentException("Map scale must be at least 1: " + scale);
+        }
+        int rows = (int) Math.sqrt(scale);
+        while (scale % rows != 0) {
+            rows--;
+        }
+        return rows;
+    }
+
+    private static int stripEntity(int tileId) {
+        switch (tileId) {
+            case SAW_LEFT:
+            case SAW_MIDDLE:
+            case SAW_RIGHT:
+                return FLOOR;
+            case FIRE_START:
+            case TORCH:
+                return WALL_TOP;
+            default:
+                return tileId;
+        }
+    }
+
+    private static void stripEntities(int[][] room) {
+        for (int[] row : room) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] = stripEntity(row[x]);
+            }
+        }
+    }
+
+    private static void placeEntities(int[][] main, int top, int left, int sawTraps, int fires, int boxTraps, Random random) {
+        List<int[]> floorCells = new ArrayList<>();
+        for (int y = top; y < top + BLOCK_HEIGHT; y++) {
+            for (int x = left; x < left + BLOCK_WIDTH; x++) {
+                if (main[y][x] == FLOOR) {
+                    floorCells.add(new int[] {x, y});
+                }
+            }
+        }
+        Collections.shuffle(floorCells, random);
+
+        // Saws sweep across three tiles, so they need three floor tiles in a row
+        int placed = 0;
+        for (int[] cell : floorCells) {
+            if (placed == sawTraps) {
+                break;
+            }
+            int x = cell[0];
+            int y = cell[1];
+            if (x + 2 < left + BLOCK_WIDTH && main[y][x] == FLOOR && main[y][x + 1] == FLOOR && main[y][x + 2] == FLOOR) {
+                main[y][x] = SAW_LEFT;
+                main[y][x + 1] = SAW_MIDDLE;
+                main[y][x + 2] = SAW_RIGHT;
+                placed++;
+            }
+        }
+        if (placed < sawTraps) {
+            throw new IllegalArgumentException("Only room for " + placed + " saw traps per level copy, asked for " + sawTraps);
+        }
+
+        // Each box trap is a trap tile, the box it releases, its button and a box to push onto it
+        int[] boxTrapTiles = new int[boxTraps * 4];
+        for (int i = 0; i < boxTraps; i++) {
+            boxTrapTiles[i * 4] = TRAP;
+            boxTrapTiles[i * 4 + 1] = TRAP_BOX;
+            boxTrapTiles[i * 4 + 2] = BUTTON;
+            boxTrapTiles[i * 4 + 3] = PUSHABLE_BOX;
+        }
+        int next = 0;
+        int remaining = fires + boxTrapTiles.length;
+        for (int[] cell : floorCells) {
+            if (remaining == 0) {
+                break;
+            }
+            if (main[cell[1]][cell[0]] != FLOOR) {
+                continue;
+            }
+            main[cell[1]][cell[0]] = next < fires ? FIRE_START : boxTrapTiles[next - fires];
+            next++;
+            remaining--;
+        }
+        if (remaining > 0) {
+            throw new IllegalArgumentException("Not enough floor for " + fires + " fires and " + boxTraps + " box traps per level copy");
+        }
+    }
+}
@@ -1,33 +1,63 @@
 package com.monkeyintrouble;
 
 import com.badlogic.gdx.Game;
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.monkeyintrouble.assets.GameAssets;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
 import com.monkeyintrouble.screens.GameScreen;
+import com.monkeyintrouble.screens.LoadingScreen;
 
 public class MonkeyInTroubleGame extends Game {
     public static final boolean DEBUG = false;
+    private final GameAssets assets = new GameAssets();
     private GameScreen gameScreen;
+    private long createdAt;
+    private long assetsLoadedAt;
+    private long timeToFirstFrameMillis = -1;
 
     @Override
     public void create() {
-        gameScreen = new GameScreen(this);
+        createdAt = TimeUtils.millis();
+        // Game events are printed from a background thread, never from the render loop
+        EventLog.startDrainThread(System.out);
+        setScreen(new LoadingScreen(this, assets));
+    }
+
+    // Called by the loading screen once every texture is ready
+    public void onAssetsLoaded() {
+        assetsLoadedAt = TimeUtils.millis();
+        Screen loadingScreen = getScreen();
+        gameScreen = new GameScreen(this, assets);
+        // The game screen holds the textures it uses now
+        assets.releasePreloaded();
         setScreen(gameScreen);
+        loadingScreen.dispose();
     }
 
     @Override
     public void render() {
+        Screen rendered = getScreen();
         super.render();
 
-        // Check for R key press to reset the game
-        if (Gdx.input.isKeyJustPressed(Keys.R)) {
-            gameScreen.reset();
+        // The first frame drawn by the game screen ends the startup time
+        if (rendered == gameScreen && gameScreen != null && timeToFirstFrameMillis < 0) {
+            timeToFirstFrameMillis = TimeUtils.timeSinceMillis(createdAt);
+            EventLog.log(LogEvent.FIRST_FRAME, (int) timeToFirstFrameMillis, (int) (assetsLoadedAt - createdAt));
         }
     }
 
+    // Milliseconds from startup until the first game frame was drawn, or -1 while still loading
+    public long getTimeToFirstFrameMillis() {
+        return timeToFirstFrameMillis;
+    }
+
     @Override
     public void dispose() {
         super.dispose();
         getScreen().dispose();
+        assets.dispose();
+        EventLog.stopDrainThread();
     }
 }
@@ -0,0 +1,110 @@
+package com.monkeyintrouble.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Disposable;
+import com.monkeyintrouble.render.TileAtlas;
+
+public class GameAssets implements Disposable {
+    // Every texture the game draws, loaded through one AssetManager. Images are decoded on
+    // the manager's worker thread; only the GL upload happens on the render thread, a little
+    // per update() call, so a loading screen can keep drawing while it runs.
+    // Textures are shared by path and reference counted: whoever needs one acquires it and
+    // releases it when done, and it is disposed once nothing holds it any more. queue() holds
+    // the UI textures only so they are ready in time; releasePreloaded() drops that hold once
+    // the screens that use them have acquired them.
+    public static final String HEART_FULL = "heart1.png";
+    public static final String HEART_EMPTY = "heart2.png";
+    public static final String BANANA_FULL = "banana1.png";
+    public static final String BANANA_EMPTY = "banana2.png";
+    private static final String[] PRELOADED = {HEART_FULL, HEART_EMPTY, BANANA_FULL, BANANA_EMPTY};
+
+    private final AssetManager manager = new AssetManager();
+    private TileAtlas tileAtlas;
+    private boolean preloadHeld;
+
+    public void queue() {
+        if (Gdx.files.internal(TileAtlas.ATLAS_FILE).exists()) {
+            manager.load(TileAtlas.ATLAS_FILE, TextureAtlas.class);
+        } else {
+            // Running without the packed atlas (e.g. straight from an IDE): load the images one by one
+            Gdx.app.log("GameAssets", TileAtlas.ATLAS_FILE + " not found, loading individual tile images");
+            for (int i = 0; i < TileAtlas.TILE_COUNT; i++) {
+                String path = TileAtlas.tileFile(i);
+                if (Gdx.files.internal(path).exists()) {
+                    manager.load(path, Texture.class);
+                }
+            }
+        }
+        for (String path : PRELOADED) {
+            manager.load(path, Texture.class);
+        }
+        preloadHeld = true;
+    }
+
+    // Gives up queue()'s hold on the UI textures, leaving them to whoever acquired them
+    public void releasePreloaded() {
+        if (!preloadHeld) {
+            return;
+        }
+        preloadHeld = false;
+        for (String path : PRELOADED) {
+            manager.unload(path);
+        }
+    }
+
+    // Loads for up to the given time; true once everything queued is ready
+    public boolean update(int millis) {
+        return manager.update(millis);
+    }
+
+    // Blocks until everything queued is ready, for tools that have no loading screen
+    public void finishLoading() {
+        manager.finishLoading();
+    }
+
+    // 0 to 1
+    public float getProgress() {
+        return manager.getProgress();
+    }
+
+    public TileAtlas getTileAtlas() {
+        if (tileAtlas == null) {
+            tileAtlas = new TileAtlas(manager);
+        }
+        return tileAtlas;
+    }
+
+    // Borrows a texture, loading it now if nobody holds it yet. Pair with releaseTexture.
+    public Texture acquireTexture(String path) {
+        if (manager.isLoaded(path, Texture.class)) {
+            manager.setReferenceCount(path, manager.getReferenceCount(path) + 1);
+        } else {
+            manager.load(path, Texture.class);
+            manager.finishLoadingAsset(path);
+        }
+        return manager.get(path, Texture.class);
+    }
+
+    public void releaseTexture(String path) {
+        manager.unload(path);
+    }
+
+    // Holders of a texture, 0 if it is not loaded
+    public int getReferenceCount(String path) {
+        return manager.isLoaded(path) ? manager.getReferenceCount(path) : 0;
+    }
+
+    // Everything currently in memory, atlas pages included
+    public int getLoadedAssetCount() {
+        return manager.getLoadedAssets();
+    }
+
+    @Override
+    public void dispose() {
+        manager.dispose();
+        tileAtlas = null;
+    }
+}
@@ -3,15 +3,18 @@ package com.monkeyintrouble.entities;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Rectangle;
+import com.monkeyintrouble.assets.GameAssets;
 
 public class Banana {
     private Rectangle bounds;
+    private final GameAssets assets;
     private Texture texture;
     private boolean collected;
 
-    public Banana(float x, float y) {
+    public Banana(float x, float y, GameAssets assets) {
+        this.assets = assets;
         bounds = new Rectangle(x, y, 16, 16);
-        texture = new Texture("banana1.png"); // You'll need to add this texture
+        texture = assets.acquireTexture(GameAssets.BANANA_FULL);
         collected = false;
     }
 
@@ -34,6 +37,6 @@ public class Banana {
     }
 
     public void dispose() {
-        texture.dispose();
+        assets.releaseTexture(GameAssets.BANANA_FULL);
     }
 }
@@ -1,11 +1,15 @@
 package com.monkeyintrouble.entities;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.Texture;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
+import com.monkeyintrouble.render.TileAtlas;
+import java.nio.ByteBuffer;
 import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.math.Vector2;
 
 public class BoxTrap {
+    // A trap with the box and button that go with it. The map triggers it when any box
+    // presses a button in its room, the same moment the room's trap tiles open.
     private static final float TILE_SIZE = 32f;
 
     // Texture indices
@@ -14,7 +18,7 @@ public class BoxTrap {
     private static final int BOX_NORMAL = 39;
     private static final int BOX_PRESSED = 41;
     private static final int BUTTON = 32;
-    private static final int PUSHABLE_BOX = 42;
+    public static final int SPAWN_BYTES = 6 * 4;
 
     private final float trapX;
     private final float trapY;
@@ -26,59 +30,40 @@ public class BoxTrap {
     private final Rectangle trapHitbox;
     private final Rectangle boxHitbox;
     private final Rectangle buttonHitbox;
-    private final Rectangle pushableBoxHitbox;
-    private float pushableBoxX;
-    private float pushableBoxY;
 
-    public BoxTrap(float trapX, float trapY, float boxX, float boxY, float buttonX, float buttonY, float pushableBoxX, float pushableBoxY) {
+    public BoxTrap(float trapX, float trapY, float boxX, float boxY, float buttonX, float buttonY) {
         this.trapX = trapX;
         this.trapY = trapY;
         this.boxX = boxX;
         this.boxY = boxY;
         this.buttonX = buttonX;
         this.buttonY = buttonY;
-        this.pushableBoxX = pushableBoxX;
-        this.pushableBoxY = pushableBoxY;
         this.isTriggered = false;
 
         // Create hitboxes
         this.trapHitbox = new Rectangle(trapX, trapY, TILE_SIZE, TILE_SIZE);
         this.boxHitbox = new Rectangle(boxX, boxY, TILE_SIZE, TILE_SIZE);
         this.buttonHitbox = new Rectangle(buttonX, buttonY, TILE_SIZE, TILE_SIZE);
-        this.pushableBoxHitbox = new Rectangle(pushableBoxX, pushableBoxY, TILE_SIZE, TILE_SIZE);
     }
 
-    public void update(float deltaTime) {
-        // Check if pushable box is on button
-        if (!isTriggered) {
-            boolean isOverlapping = pushableBoxHitbox.overlaps(buttonHitbox);
-            System.out.println("Box hitbox: x=" + pushableBoxHitbox.x + ", y=" + pushableBoxHitbox.y +
-                             ", w=" + pushableBoxHitbox.width + ", h=" + pushableBoxHitbox.height);
-            System.out.println("Button hitbox: x=" + buttonHitbox.x + ", y=" + buttonHitbox.y +
-                             ", w=" + buttonHitbox.width + ", h=" + buttonHitbox.height);
-            System.out.println("Box and button overlapping: " + isOverlapping);
-
-            if (isOverlapping) {
-                isTriggered = true;
-                System.out.println("Box trap triggered! Changing trap to inactive state (30.png) and box to pressed state (41.png)");
-            }
-        }
-    }
-
-    public void render(SpriteBatch batch, Texture[] tileTextures) {
+    // The parts can be far apart, so each one is skipped on its own when outside the view
+    public void render(SpriteBatch batch, TileAtlas tileAtlas, Rectangle view) {
         // Draw trap
-        int trapTexture = isTriggered ? TRAP_INACTIVE : TRAP_ACTIVE;
-        batch.draw(tileTextures[trapTexture], trapX, trapY, TILE_SIZE, TILE_SIZE);
+        if (trapHitbox.overlaps(view)) {
+            int trapTexture = isTriggered ? TRAP_INACTIVE : TRAP_ACTIVE;
+            batch.draw(tileAtlas.get(trapTexture), trapX, trapY, TILE_SIZE, TILE_SIZE);
+        }
 
         // Draw box
-        int boxTexture = isTriggered ? BOX_PRESSED : BOX_NORMAL;
-        batch.draw(tileTextures[boxTexture], boxX, boxY, TILE_SIZE, TILE_SIZE);
+        if (boxHitbox.overlaps(view)) {
+            int boxTexture = isTriggered ? BOX_PRESSED : BOX_NORMAL;
+            batch.draw(tileAtlas.get(boxTexture), boxX, boxY, TILE_SIZE, TILE_SIZE);
+        }
 
         // Draw button
-        batch.draw(tileTextures[BUTTON], buttonX, buttonY, TILE_SIZE, TILE_SIZE);
-
-        // Draw pushable box
-        batch.draw(tileTextures[PUSHABLE_BOX], pushableBoxX, pushableBoxY, TILE_SIZE, TILE_SIZE);
+        if (buttonHitbox.overlaps(view)) {
+            batch.draw(tileAtlas.get(BUTTON), buttonX, buttonY, TILE_SIZE, TILE_SIZE);
+        }
     }
 
     public Rectangle getTrapHitbox() {
@@ -89,24 +74,16 @@ public class BoxTrap {
         return boxHitbox;
     }
 
-    public Rectangle getPushableBoxHitbox() {
-        return pushableBoxHitbox;
+    public Rectangle getButtonHitbox() {
+        return buttonHitbox;
     }
 
-    public void movePushableBox(float deltaX, float deltaY) {
-        // Update both the box position and hitbox position
-        pushableBoxX += deltaX;
-        pushableBoxY += deltaY;
-        pushableBoxHitbox.x = pushableBoxX;
-        pushableBoxHitbox.y = pushableBoxY;
-
-        // Print debug information
-        System.out.println("Box moved to: (" + pushableBoxX + ", " + pushableBoxY + ")");
-        System.out.println("Box hitbox: x=" + pushableBoxHitbox.x + ", y=" + pushableBoxHitbox.y +
-                         ", w=" + pushableBoxHitbox.width + ", h=" + pushableBoxHitbox.height);
-        System.out.println("Button hitbox: x=" + buttonHitbox.x + ", y=" + buttonHitbox.y +
-                         ", w=" + buttonHitbox.width + ", h=" + buttonHitbox.height);
-        System.out.println("Box and button overlapping: " + pushableBoxHitbox.overlaps(buttonHitbox));
+    // Stays open until the map is reset
+    public void trigger() {
+        if (!isTriggered) {
+            isTriggered = true;
+            EventLog.log(LogEvent.BOX_TRAP_TRIGGERED);
+        }
     }
 
     public boolean isTriggered() {
@@ -115,9 +92,24 @@ public class BoxTrap {
 
     public void reset() {
         isTriggered = false;
-        pushableBoxX = boxX;
-        pushableBoxY = boxY;
-        pushableBoxHitbox.x = pushableBoxX;
-        pushableBoxHitbox.y = pushableBoxY;
+    }
+
+    // For a trap loaded into a level in progress, whose room may have been pressed already
+    public void setTriggered(boolean triggered) {
+        isTriggered = triggered;
+    }
+
+    // Where every part is, for compiled levels
+    public void writeSpawn(ByteBuffer out) {
+        out.putFloat(trapX);
+        out.putFloat(trapY);
+        out.putFloat(boxX);
+        out.putFloat(boxY);
+        out.putFloat(buttonX);
+        out.putFloat(buttonY);
+    }
+
+    public static BoxTrap readSpawn(ByteBuffer in) {
+        return new BoxTrap(in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat());
     }
 }
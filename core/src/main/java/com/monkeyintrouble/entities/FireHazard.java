@@ -1,14 +1,15 @@
 package com.monkeyintrouble.entities;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool;
+import java.nio.ByteBuffer;
 
-public class FireHazard {
+public class FireHazard implements Pool.Poolable {
     private static final float TILE_SIZE = 32f;
     private static final float MOVE_SPEED = 100f; // Increased speed
     private static final float MAX_DISTANCE = TILE_SIZE * 3; // 3 blocks down
+    public static final int SAVE_BYTES = 4 * 4;
 
     private final Vector2 startPosition;
     private final Vector2 position;
@@ -23,6 +24,12 @@ public class FireHazard {
         this.distanceMoved = 0;
     }
 
+    // Restarts a pooled fire at a new emitter
+    public void init(float x, float y) {
+        startPosition.set(x, y);
+        reset();
+    }
+
     public void update(float deltaTime) {
         if (!isActive) return;
 
@@ -39,11 +46,6 @@ public class FireHazard {
         }
     }
 
-    public void render(SpriteBatch batch, Texture fireTexture) {
-        if (!isActive) return;
-        batch.draw(fireTexture, position.x, position.y, TILE_SIZE, TILE_SIZE);
-    }
-
     public Rectangle getHitbox() {
         return hitbox;
     }
@@ -59,4 +61,19 @@ public class FireHazard {
         distanceMoved = 0;
         isActive = true;
     }
+
+    // Emitter and how far the fire has fallen from it
+    public void save(ByteBuffer out) {
+        out.putFloat(startPosition.x);
+        out.putFloat(startPosition.y);
+        out.putFloat(position.y);
+        out.putFloat(distanceMoved);
+    }
+
+    public void restore(ByteBuffer in) {
+        init(in.getFloat(), in.getFloat());
+        position.y = in.getFloat();
+        distanceMoved = in.getFloat();
+        hitbox.y = position.y;
+    }
 }
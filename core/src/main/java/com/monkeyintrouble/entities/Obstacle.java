@@ -3,15 +3,20 @@ package com.monkeyintrouble.entities;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Rectangle;
+import com.monkeyintrouble.assets.GameAssets;
 
 public class Obstacle {
+    private static final String TEXTURE = "obstacle.png"; // You'll need to add this texture
+
     private Rectangle bounds;
+    private final GameAssets assets;
     private Texture texture;
     private float speed;
 
-    public Obstacle(float x, float y, float width, float height, float speed) {
+    public Obstacle(float x, float y, float width, float height, float speed, GameAssets assets) {
+        this.assets = assets;
         bounds = new Rectangle(x, y, width, height);
-        texture = new Texture("obstacle.png"); // You'll need to add this texture
+        texture = assets.acquireTexture(TEXTURE);
         this.speed = speed;
     }
 
@@ -32,6 +37,6 @@ public class Obstacle {
     }
 
     public void dispose() {
-        texture.dispose();
+        assets.releaseTexture(TEXTURE);
     }
 }
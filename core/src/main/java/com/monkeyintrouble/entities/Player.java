@@ -1,17 +1,17 @@
 package com.monkeyintrouble.entities;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input.Keys;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.monkeyintrouble.map.GameMap;
+import com.monkeyintrouble.render.TileAtlas;
 import com.monkeyintrouble.states.MonkeyState;
 import com.monkeyintrouble.states.NormalState;
 import com.monkeyintrouble.states.GhostState;
 import com.monkeyintrouble.observers.MonkeyObservable;
 import com.monkeyintrouble.observers.MonkeyObserver;
+import com.monkeyintrouble.world.InputState;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,16 +19,16 @@ public class Player implements MonkeyObservable {
     private static final float MOVE_SPEED = 150f;
     private static final float GRAVITY = 0f;
     private static final float DAMAGE_COOLDOWN = 1.0f;
+    // Longer updates are split so no step moves more than a quarter tile; walls are swept
+    // anyway, but hazards, pads and buttons are only checked where each step ends
+    private static final float MAX_STEP = (GameMap.TILE_SIZE / 4f) / MOVE_SPEED;
+    public static final int SAVE_BYTES = 4 + 4 + 1 + 4 + 1 + 4 + 4 + 4 + 1 + 1;
 
     private final float startX;
     private final float startY;
     private final Vector2 position;
     private final Rectangle bounds;
     private final GameMap gameMap;
-    private final Texture rightTexture;
-    private final Texture leftTexture;
-    private final Texture ghostRightTexture;
-    private final Texture ghostLeftTexture;
     private boolean isFacingRight = true;
     private float jumpVelocity = 0;
     private boolean isJumping = false;
@@ -38,55 +38,59 @@ public class Player implements MonkeyObservable {
     private boolean isInvincible = false;
     private boolean isGhostMode = false;
     private MonkeyState currentState;
+    // States hold no per-switch data, so one of each is reused
+    private final MonkeyState normalState = new NormalState();
+    private final MonkeyState ghostState = new GhostState();
     private MonkeyObserver observer;
 
     public Player(GameMap gameMap, float x, float y) {
         this.gameMap = gameMap;
         this.position = new Vector2(x, y);
         this.bounds = new Rectangle(x, y, 24, 24);
-        this.rightTexture = new Texture(com.badlogic.gdx.Gdx.files.internal("58.png")); // Monkey right texture
-        this.leftTexture = new Texture(com.badlogic.gdx.Gdx.files.internal("59.png")); // Monkey left texture
-        this.ghostRightTexture = new Texture(com.badlogic.gdx.Gdx.files.internal("60.png")); // Ghost right texture
-        this.ghostLeftTexture = new Texture(com.badlogic.gdx.Gdx.files.internal("61.png")); // Ghost left texture
-        this.currentState = new NormalState();
+        this.currentState = normalState;
         this.startX = x;
         this.startY = y;
     }
 
-    public void update(float deltaTime) {
+    public void update(float deltaTime, InputState input) {
+        if (deltaTime > MAX_STEP) {
+            int steps = (int) Math.ceil(deltaTime / MAX_STEP);
+            for (int i = 0; i < steps; i++) {
+                step(deltaTime / steps, input);
+            }
+        } else {
+            step(deltaTime, input);
+        }
+    }
+
+    private void step(float deltaTime, InputState input) {
         // Handle horizontal movement
         float deltaX = 0;
         float deltaY = 0;
 
-        if (Gdx.input.isKeyPressed(Keys.RIGHT)) {
+        if (input.isPressed(InputState.RIGHT)) {
             deltaX += MOVE_SPEED * deltaTime;
             isFacingRight = true;
         }
-        if (Gdx.input.isKeyPressed(Keys.LEFT)) {
+        if (input.isPressed(InputState.LEFT)) {
             deltaX -= MOVE_SPEED * deltaTime;
             isFacingRight = false;
         }
-        if (Gdx.input.isKeyPressed(Keys.UP)) {
+        if (input.isPressed(InputState.UP)) {
             deltaY += MOVE_SPEED * deltaTime;
         }
-        if (Gdx.input.isKeyPressed(Keys.DOWN)) {
+        if (input.isPressed(InputState.DOWN)) {
             deltaY -= MOVE_SPEED * deltaTime;
         }
 
         // Try to push box first
         if (!gameMap.tryPushBox(bounds, deltaX, deltaY)) {
-            // If not pushing box, handle normal movement
+            // If not pushing box, move up to the nearest wall, one axis at a time
             if (deltaX != 0) {
-                bounds.x += deltaX;
-                if (gameMap.isColliding(bounds)) {
-                    bounds.x -= deltaX;
-                }
+                gameMap.moveX(bounds, deltaX);
             }
             if (deltaY != 0) {
-            bounds.y += deltaY;
-                if (gameMap.isColliding(bounds)) {
-                bounds.y -= deltaY;
-                }
+                gameMap.moveY(bounds, deltaY);
             }
         }
 
@@ -117,15 +121,8 @@ public class Player implements MonkeyObservable {
         currentState.update(this, deltaTime);
     }
 
-    public void render(SpriteBatch batch) {
-        currentState.render(this, batch);
-    }
-
-    public void dispose() {
-        rightTexture.dispose();
-        leftTexture.dispose();
-        ghostRightTexture.dispose();
-        ghostLeftTexture.dispose();
+    public void render(SpriteBatch batch, TileAtlas tileAtlas) {
+        currentState.render(this, batch, tileAtlas);
     }
 
     public Vector2 getPosition() {
@@ -220,6 +217,35 @@ public class Player implements MonkeyObservable {
         }
     }
 
+    public void save(ByteBuffer out) {
+        out.putFloat(position.x);
+        out.putFloat(position.y);
+        out.put((byte) (isFacingRight ? 1 : 0));
+        out.putFloat(jumpVelocity);
+        out.put((byte) (isJumping ? 1 : 0));
+        out.putInt(hearts);
+        out.putInt(bananas);
+        out.putFloat(damageTimer);
+        out.put((byte) (isInvincible ? 1 : 0));
+        out.put((byte) (isGhostMode ? 1 : 0));
+    }
+
+    public void restore(ByteBuffer in) {
+        teleport(in.getFloat(), in.getFloat());
+        isFacingRight = in.get() != 0;
+        jumpVelocity = in.getFloat();
+        isJumping = in.get() != 0;
+        hearts = in.getInt();
+        bananas = in.getInt();
+        damageTimer = in.getFloat();
+        isInvincible = in.get() != 0;
+        setGhostMode(in.get() != 0);
+        if (observer != null) {
+            observer.onHeartsChanged(hearts);
+            observer.onBananasChanged(bananas);
+        }
+    }
+
     public void addObserver(MonkeyObserver observer) {
         this.observer = observer;
     }
@@ -252,14 +278,6 @@ public class Player implements MonkeyObservable {
         return isFacingRight;
     }
 
-    public Texture getGhostRightTexture() {
-        return ghostRightTexture;
-    }
-
-    public Texture getGhostLeftTexture() {
-        return ghostLeftTexture;
-    }
-
     public boolean isGhostMode() {
         return isGhostMode;
     }
@@ -267,9 +285,9 @@ public class Player implements MonkeyObservable {
     public void setGhostMode(boolean ghostMode) {
         this.isGhostMode = ghostMode;
         if (ghostMode) {
-            setState(new GhostState());
+            setState(ghostState);
         } else {
-            setState(new NormalState());
+            setState(normalState);
         }
         if (observer != null) {
             observer.onGhostModeChanged(ghostMode);
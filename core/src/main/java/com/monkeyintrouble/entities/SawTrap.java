@@ -1,15 +1,15 @@
 package com.monkeyintrouble.entities;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Disposable;
+import com.monkeyintrouble.render.TileAtlas;
+import java.nio.ByteBuffer;
 
-public class SawTrap implements Disposable {
+public class SawTrap {
     private static final float TILE_SIZE = 32f;
     private static final float POSITION_DURATION = 1.0f; // Time between position changes
     private static final int NUM_POSITIONS = 3; // Number of positions the saw can be in
+    public static final int SAVE_BYTES = 1 + 1 + 4;
 
     // Texture indices for the saw trap
     private static final int TRAP_LEFT = 43;
@@ -26,9 +26,7 @@ public class SawTrap implements Disposable {
     private boolean movingLeft;
     private float stateTime;
     private final Rectangle hitbox;
-    private Texture texture;
-    private float rotation;
-    private Vector2 startPosition;
+    private final Rectangle trackBounds; // All three track tiles, the area the saw is drawn in
 
     public SawTrap(float x, float y) {
         this.startX = x;
@@ -38,9 +36,7 @@ public class SawTrap implements Disposable {
         this.movingLeft = false;
         this.stateTime = 0;
         this.hitbox = new Rectangle(x, y, TILE_SIZE, TILE_SIZE);
-        this.texture = new Texture(com.badlogic.gdx.Gdx.files.internal("43.png"));
-        this.rotation = 0;
-        this.startPosition = new Vector2(x, y);
+        this.trackBounds = new Rectangle(x, y, NUM_POSITIONS * TILE_SIZE, TILE_SIZE);
     }
 
     public void update(float deltaTime) {
@@ -72,21 +68,25 @@ public class SawTrap implements Disposable {
         }
     }
 
-    public void render(SpriteBatch batch, Texture[] tileTextures) {
+    public void render(SpriteBatch batch, TileAtlas tileAtlas) {
         // Draw empty trap tiles
-        batch.draw(tileTextures[TRAP_LEFT], startX, y, TILE_SIZE, TILE_SIZE);
-        batch.draw(tileTextures[TRAP_MIDDLE], startX + TILE_SIZE, y, TILE_SIZE, TILE_SIZE);
-        batch.draw(tileTextures[TRAP_RIGHT], startX + (2 * TILE_SIZE), y, TILE_SIZE, TILE_SIZE);
+        batch.draw(tileAtlas.get(TRAP_LEFT), startX, y, TILE_SIZE, TILE_SIZE);
+        batch.draw(tileAtlas.get(TRAP_MIDDLE), startX + TILE_SIZE, y, TILE_SIZE, TILE_SIZE);
+        batch.draw(tileAtlas.get(TRAP_RIGHT), startX + (2 * TILE_SIZE), y, TILE_SIZE, TILE_SIZE);
 
         // Draw the saw at its current position
         int sawTextureIndex = SAW_LEFT + (NUM_POSITIONS - 1 - currentPosition);
-        batch.draw(tileTextures[sawTextureIndex], currentX, y, TILE_SIZE, TILE_SIZE);
+        batch.draw(tileAtlas.get(sawTextureIndex), currentX, y, TILE_SIZE, TILE_SIZE);
     }
 
     public Rectangle getHitbox() {
         return hitbox;
     }
 
+    public Rectangle getTrackBounds() {
+        return trackBounds;
+    }
+
     public float getX() {
         return currentX;
     }
@@ -100,13 +100,32 @@ public class SawTrap implements Disposable {
         this.currentPosition = 0;
         this.movingLeft = false;
         this.stateTime = 0;
-        this.rotation = 0;
         this.hitbox.x = startX;
         this.hitbox.y = y;
     }
 
-    @Override
-    public void dispose() {
-        // No need to dispose textures as they are managed by GameMap
+    // Every saw runs the same cycle from the same start, so one saw's phase can stand in
+    // for all of them
+    public void copyPhase(SawTrap other) {
+        currentPosition = other.currentPosition;
+        movingLeft = other.movingLeft;
+        stateTime = other.stateTime;
+        currentX = startX + (currentPosition * TILE_SIZE);
+        hitbox.x = currentX;
+    }
+
+    // Where along the track the saw is and how long it has been there
+    public void save(ByteBuffer out) {
+        out.put((byte) currentPosition);
+        out.put((byte) (movingLeft ? 1 : 0));
+        out.putFloat(stateTime);
+    }
+
+    public void restore(ByteBuffer in) {
+        currentPosition = in.get();
+        movingLeft = in.get() != 0;
+        stateTime = in.getFloat();
+        currentX = startX + (currentPosition * TILE_SIZE);
+        hitbox.x = currentX;
     }
 }
@@ -0,0 +1,175 @@
+package com.monkeyintrouble.log;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Game event log. Logging a disabled event is a single compare; an enabled one writes a few
+// numbers into a preallocated ring buffer. Nothing is formatted or printed on the game thread:
+// the buffer is drained on demand with drain() or by the thread started with startDrainThread().
+// Every thread has a tick of its own, and gets a ring of its own with its first enabled
+// event, so worlds stepped on different threads never share either. A ring outlives its
+// thread: the next thread to need one takes it over, events still undrained included, so
+// there are never more rings than threads that have logged at the same time.
+// Start with -Dmonkey.log=trace (or none, error, info, debug) to change the level.
+public final class EventLog {
+    public static final int NONE = 0;
+    public static final int ERROR = 1;
+    public static final int INFO = 2;
+    public static final int DEBUG = 3;
+    public static final int TRACE = 4;
+
+    private static final int CAPACITY = 4096;
+    private static final long DRAIN_INTERVAL_MILLIS = 100;
+    private static final String[] LEVEL_NAMES = {"NONE", "ERROR", "INFO", "DEBUG", "TRACE"};
+
+    private static final List<EventRing> rings = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<EventRing> threadRing = ThreadLocal.withInitial(EventLog::claimRing);
+    private static final ThreadLocal<long[]> threadTick = ThreadLocal.withInitial(() -> new long[1]);
+    private static volatile int level = parseLevel(System.getProperty("monkey.log"));
+    private static Thread drainThread;
+
+    private EventLog() {
+    }
+
+    public static void setLevel(int newLevel) {
+        level = newLevel;
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    public static boolean isEnabled(int eventLevel) {
+        return eventLevel <= level;
+    }
+
+    // Simulation tick stamped on every following event from this thread
+    public static void setTick(long currentTick) {
+        threadTick.get()[0] = currentTick;
+    }
+
+    public static void log(LogEvent event) {
+        if (event.level <= level) {
+            write(event, 0, 0, 0, 0, 0);
+        }
+    }
+
+    public static void log(LogEvent event, int a) {
+        if (event.level <= level) {
+            write(event, a, 0, 0, 0, 0);
+        }
+    }
+
+    public static void log(LogEvent event, int a, int b) {
+        if (event.level <= level) {
+            write(event, a, b, 0, 0, 0);
+        }
+    }
+
+    public static void log(LogEvent event, int a, int b, int c) {
+        if (event.level <= level) {
+            write(event, a, b, c, 0, 0);
+        }
+    }
+
+    public static void log(LogEvent event, float x, float y) {
+        if (event.level <= level) {
+            write(event, 0, 0, 0, x, y);
+        }
+    }
+
+    public static void log(LogEvent event, int a, float x, float y) {
+        if (event.level <= level) {
+            write(event, a, 0, 0, x, y);
+        }
+    }
+
+    public static void log(LogEvent event, int a, int b, float x, float y) {
+        if (event.level <= level) {
+            write(event, a, b, 0, x, y);
+        }
+    }
+
+    private static void write(LogEvent event, int a, int b, int c, float x, float y) {
+        threadRing.get().write(event, threadTick.get()[0], a, b, c, x, y);
+    }
+
+    private static EventRing claimRing() {
+        Thread current = Thread.currentThread();
+        synchronized (rings) {
+            for (EventRing ring : rings) {
+                if (ring.adopt(current)) {
+                    return ring;
+                }
+            }
+            EventRing ring = new EventRing(CAPACITY, current);
+            rings.add(ring);
+            return ring;
+        }
+    }
+
+    // Formats and prints everything logged since the last drain, one thread's events after
+    // another; returns the number of events
+    public static int drain(PrintStream out) {
+        int count = 0;
+        for (EventRing ring : rings) {
+            long droppedBefore = ring.getDropped();
+            count += ring.drain((event, eventTick, ints, floats) ->
+                out.println("[" + eventTick + "] " + LEVEL_NAMES[event.level] + " " + event.format(ints, floats)));
+            long dropped = ring.getDropped() - droppedBefore;
+            if (dropped > 0) {
+                out.println("(" + dropped + " events dropped, the log buffer was full)");
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    // Drains to the given stream in the background until stopDrainThread() is called
+    public static synchronized void startDrainThread(PrintStream out) {
+        if (drainThread != null) {
+            return;
+        }
+        drainThread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                drain(out);
+                try {
+                    Thread.sleep(DRAIN_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            // Whatever was logged during shutdown
+            drain(out);
+        }, "EventLog drain");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    public static synchronized void stopDrainThread() {
+        if (drainThread == null) {
+            return;
+        }
+        drainThread.interrupt();
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainThread = null;
+    }
+
+    private static int parseLevel(String name) {
+        if (name == null) {
+            return INFO;
+        }
+        for (int i = 0; i < LEVEL_NAMES.length; i++) {
+            if (LEVEL_NAMES[i].equals(name.toUpperCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return INFO;
+    }
+}
@@ -0,0 +1,102 @@
+package com.monkeyintrouble.log;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-size ring of primitive event records. Only its writer thread writes while another
+// may drain; when the writer laps the reader the oldest records are dropped.
+class EventRing {
+    static final int INTS = 3;
+    static final int FLOATS = 2;
+
+    interface Reader {
+        void read(LogEvent event, long tick, int[] ints, float[] floats);
+    }
+
+    private volatile Thread writer;
+    private final int mask;
+    private final short[] events;
+    private final long[] ticks;
+    private final int[] ints;
+    private final float[] floats;
+    private final AtomicLong head = new AtomicLong(); // Next record to write
+    private long tail;                               // Next record to read
+    private long dropped;
+
+    // Scratch for one record while it is handed to a reader
+    private final int[] recordInts = new int[INTS];
+    private final float[] recordFloats = new float[FLOATS];
+
+    EventRing(int capacity, Thread writer) {
+        this.writer = writer;
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        events = new short[capacity];
+        ticks = new long[capacity];
+        ints = new int[capacity * INTS];
+        floats = new float[capacity * FLOATS];
+    }
+
+    void write(LogEvent event, long tick, int a, int b, int c, float x, float y) {
+        long index = head.get();
+        int slot = (int) (index & mask);
+        // Keeps the stores below from becoming visible before the head that claimed this
+        // slot, so a reader that sees any of them also sees it was overwritten
+        VarHandle.releaseFence();
+        events[slot] = (short) event.ordinal();
+        ticks[slot] = tick;
+        ints[slot * INTS] = a;
+        ints[slot * INTS + 1] = b;
+        ints[slot * INTS + 2] = c;
+        floats[slot * FLOATS] = x;
+        floats[slot * FLOATS + 1] = y;
+        // Publish the record only once it is complete
+        head.lazySet(index + 1);
+    }
+
+    // Hands every record written since the last drain to the reader and returns how many
+    synchronized int drain(Reader reader) {
+        int capacity = mask + 1;
+        long end = head.get();
+        if (end - tail > capacity) {
+            dropped += end - capacity - tail;
+            tail = end - capacity;
+        }
+        int count = 0;
+        LogEvent[] values = LogEvent.values();
+        for (; tail < end; tail++) {
+            int slot = (int) (tail & mask);
+            LogEvent event = values[events[slot]];
+            long tick = ticks[slot];
+            System.arraycopy(ints, slot * INTS, recordInts, 0, INTS);
+            System.arraycopy(floats, slot * FLOATS, recordFloats, 0, FLOATS);
+            // The copies must be complete before head is read again, or the check below
+            // could pass for a record the writer was still overwriting
+            VarHandle.acquireFence();
+            if (head.get() - capacity >= tail) {
+                // The writer lapped us while we were copying, so the record may be torn
+                dropped++;
+                continue;
+            }
+            reader.read(event, tick, recordInts, recordFloats);
+            count++;
+        }
+        return count;
+    }
+
+    // Makes the thread the writer if the current one has ended. Once a thread has ended
+    // (seen through isAlive), everything it wrote is visible to the thread taking over.
+    boolean adopt(Thread thread) {
+        if (writer.isAlive()) {
+            return false;
+        }
+        writer = thread;
+        return true;
+    }
+
+    synchronized long getDropped() {
+        return dropped;
+    }
+}
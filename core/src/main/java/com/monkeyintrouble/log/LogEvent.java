@@ -0,0 +1,95 @@
+package com.monkeyintrouble.log;
+
+// Every message the game can log. Records only carry the event and its numbers; the text is
+// formatted when the log is drained. The args string gives the type of each format argument
+// in order: i = int, b = boolean (passed as an int), f = float.
+public enum LogEvent {
+    // Startup
+    FIRST_FRAME(EventLog.INFO, "ii", "First frame after %d ms (assets ready after %d ms)"),
+
+    // Map loading
+    BOX_CREATED(EventLog.DEBUG, "iii", "Creating box at: %d, %d in room %d"),
+    SAW_TRAP_CREATED(EventLog.DEBUG, "ff", "Saw trap initialized at: %.1f, %.1f"),
+    FIRE_START_STORED(EventLog.DEBUG, "ff", "Fire hazard position stored at: %.1f, %.1f"),
+    BOX_TRAP_CREATED(EventLog.DEBUG, "ff", "Creating box trap with trap at: (%.1f, %.1f)"),
+    BOX_TRAP_INCOMPLETE(EventLog.DEBUG, "ii", "Could not find all components for box trap at: (%d, %d)"),
+    LEVEL_CACHE_HIT(EventLog.INFO, "i", "Loaded cached level in %d ms"),
+    LEVEL_CACHE_MISS(EventLog.INFO, "iib", "Built level from %d source files in %d ms (cached: %b)"),
+    LEVEL_CACHE_UNREADABLE(EventLog.ERROR, "", "Cached level unreadable, rebuilding it"),
+
+    // Streaming
+    CHUNK_LOADED(EventLog.DEBUG, "iib", "Loaded chunk %d,%d (restored: %b)"),
+    CHUNK_EVICTED(EventLog.DEBUG, "iib", "Evicted chunk %d,%d (saved: %b)"),
+
+    // Boxes and traps
+    PLATE_PRESSED(EventLog.INFO, "ii", "Button %d in room %d pressed! Trap and box updated."),
+    BOX_TRAP_TRIGGERED(EventLog.INFO, "", "Box trap triggered! Changing trap to inactive state (30.png) and box to pressed state (41.png)"),
+
+    // Triggers
+    DOOR_BUTTON_PRESSED(EventLog.INFO, "ii", "Button (56) pressed at position: %d,%d"),
+    DOOR_OPENED(EventLog.INFO, "iii", "Opening door at position: %d,%d in room %d"),
+    EXIT_REVEALED(EventLog.DEBUG, "iii", "Changed asset 74 to 50 at position: %d,%d in room %d"),
+    BANANA_DROPPED(EventLog.INFO, "iii", "Dropped banana %d of %d at asset %d"),
+    BANANA_COLLECTED(EventLog.INFO, "ii", "Collected banana: %d of %d"),
+    TELEPORTER_LINKED(EventLog.DEBUG, "iii", "Teleporter %d linked at: %d,%d"),
+    TELEPORTED(EventLog.INFO, "iiff", "Teleport from %d,%d to: %.1f,%.1f"),
+    TELEPORT_DESTINATION_MISSING(EventLog.ERROR, "ii", "Could not find teleport destination for pad at: %d,%d"),
+    VICTORY(EventLog.INFO, "", "*********************************%n"
+        + "*           VICTORY!           *%n"
+        + "*     Congratulations! You     *%n"
+        + "*    have completed the game!  *%n"
+        + "*********************************"),
+
+    // Player
+    GHOST_ENTERED(EventLog.INFO, "", "Player entered Ghost State"),
+    GHOST_EXITED(EventLog.INFO, "", "Player exited Ghost State"),
+    HEALTH_CHANGED(EventLog.INFO, "i", "Health: %d"),
+    BANANAS_CHANGED(EventLog.INFO, "i", "Bananas: %d"),
+    GHOST_MODE_CHANGED(EventLog.INFO, "b", "Ghost mode: %b"),
+    GAME_WON(EventLog.INFO, "", "Victory state updated in UI"),
+
+    // Reset
+    RESET_STARTED(EventLog.INFO, "", "Resetting game..."),
+    DOOR_RESTORED(EventLog.DEBUG, "iii", "Restored door at position: %d,%d in room %d"),
+    MAP_RESET(EventLog.INFO, "", "Map Reset - All doors closed, buttons reset, and ghost restored!"),
+    GAME_RESET(EventLog.INFO, "", "Game Reset - All elements restored to original state!");
+
+    final int level;
+    final String args;
+    final String format;
+
+    LogEvent(int level, String args, String format) {
+        int floatArgs = args.replace("i", "").replace("b", "").length();
+        if (args.length() - floatArgs > EventRing.INTS || floatArgs > EventRing.FLOATS) {
+            throw new IllegalArgumentException("Too many arguments for " + format);
+        }
+        this.level = level;
+        this.args = args;
+        this.format = format;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    // Fills in the format from a record's numbers
+    String format(int[] ints, float[] floats) {
+        Object[] values = new Object[args.length()];
+        int nextInt = 0;
+        int nextFloat = 0;
+        for (int i = 0; i < values.length; i++) {
+            switch (args.charAt(i)) {
+                case 'i':
+                    values[i] = ints[nextInt++];
+                    break;
+                case 'b':
+                    values[i] = ints[nextInt++] != 0;
+                    break;
+                default:
+                    values[i] = floats[nextFloat++];
+                    break;
+            }
+        }
+        return String.format(format, values);
+    }
+}
@@ -0,0 +1,243 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.ShortArray;
+import com.monkeyintrouble.entities.BoxTrap;
+import com.monkeyintrouble.entities.SawTrap;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class Chunk implements Pool.Poolable {
+    // A SIZE x SIZE block of the world as ChunkStore loaded it: tiles, rooms, trigger kinds
+    // and collision bits, the entities on it, and a journal of the cells changed since the
+    // level was loaded. Cells are local, rows bottom-up like the world: cell = row << SHIFT | col.
+    public static final int SIZE = 32;
+    public static final int SHIFT = 5;
+    public static final int MASK = SIZE - 1;
+    public static final int CELLS = SIZE * SIZE;
+    // What a resident chunk costs against the memory budget: its arrays plus a rough
+    // allowance for its entities and cell lists
+    public static final int BYTES = CELLS * (2 + 2 + 1) + SIZE * 4 + CELLS / 8 + 2048;
+    static final int NO_BOXES = -1;
+
+    int index;
+    int chunkX;
+    int chunkY;
+    final short[] tiles = new short[CELLS];
+    final short[] rooms = new short[CELLS];
+    final byte[] kinds = new byte[CELLS];
+    final int[] solidRows = new int[SIZE];     // Bit col of word row
+    private final long[] changed = new long[CELLS / 64];
+    final ShortArray changedCells = new ShortArray();
+    long lastUsed;
+
+    // Boxes whose corner is on this chunk, wherever they started; saws and box traps by
+    // where they spawn. boxesChanged says the boxes differ from the level's.
+    final Array<GameMap.Box> boxes = new Array<>();
+    boolean boxesChanged;
+    final Array<SawTrap> saws = new Array<>();
+    final Array<BoxTrap> boxTraps = new Array<>();
+    final IntArray boxTrapRooms = new IntArray();
+    final TeleporterLinks links = new TeleporterLinks(SIZE);
+
+    // Cells whose tiles level- and room-wide events change, as the level has them
+    final ShortArray doorCells = new ShortArray();
+    final ShortArray exitWallCells = new ShortArray();
+    final ShortArray trapCells = new ShortArray();
+    final ShortArray trapBoxCells = new ShortArray();
+    final ShortArray doorButtonCells = new ShortArray();
+
+    void init(int index, int chunkX, int chunkY) {
+        this.index = index;
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+    }
+
+    // Every cell outside every room, as for chunks no room touches
+    void fillBlank() {
+        Arrays.fill(tiles, (short) 0);
+        Arrays.fill(rooms, (short) WorldGrid.NO_ROOM);
+        Arrays.fill(kinds, TriggerIndex.NONE);
+        Arrays.fill(solidRows, 0);
+    }
+
+    // Finds the cells events act on; call while the tiles are still the level's
+    void findEventCells() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (rooms[cell] == WorldGrid.NO_ROOM) {
+                continue;
+            }
+            int tileId = tiles[cell];
+            if (TileType.hasFlag(tileId, TileType.OPENABLE)) {
+                doorCells.add(cell);
+            }
+            if (tileId == TileType.EXIT_WALL_ID) {
+                exitWallCells.add(cell);
+            }
+            if (TileType.isTrap(tileId)) {
+                trapCells.add(cell);
+            }
+            if (tileId == TileType.TRAP_BOX_ID) {
+                trapBoxCells.add(cell);
+            }
+            if (kinds[cell] == TriggerIndex.DOOR_BUTTON) {
+                doorButtonCells.add(cell);
+            }
+        }
+    }
+
+    int worldCol(int cell) {
+        return chunkX << SHIFT | cell & MASK;
+    }
+
+    int worldRow(int cell) {
+        return chunkY << SHIFT | cell >>> SHIFT;
+    }
+
+    static int cellOf(int col, int row) {
+        return (row & MASK) << SHIFT | col & MASK;
+    }
+
+    boolean isSolid(int cell) {
+        return (solidRows[cell >>> SHIFT] & 1 << (cell & MASK)) != 0;
+    }
+
+    void setSolid(int cell, boolean solid) {
+        if (solid) {
+            solidRows[cell >>> SHIFT] |= 1 << (cell & MASK);
+        } else {
+            solidRows[cell >>> SHIFT] &= ~(1 << (cell & MASK));
+        }
+    }
+
+    void setTile(int cell, int tileId) {
+        tiles[cell] = (short) tileId;
+        kinds[cell] = TriggerIndex.kindOf(tileId);
+    }
+
+    // Journals a cell, once
+    void markChanged(int cell) {
+        long bit = 1L << cell;
+        if ((changed[cell >>> 6] & bit) == 0) {
+            changed[cell >>> 6] |= bit;
+            changedCells.add((short) cell);
+        }
+    }
+
+    void clearChanges() {
+        Arrays.fill(changed, 0);
+        changedCells.clear();
+    }
+
+    // Has anything that eviction would lose
+    boolean isDirty() {
+        return changedCells.size > 0 || boxesChanged;
+    }
+
+    // Size of writeDelta's output
+    int deltaBytes() {
+        return 4 + changedCells.size * (2 + 2 + 1) + 4 + (boxesChanged ? boxes.size * (4 * 3 + 4 * 2) : 0);
+    }
+
+    // How this chunk differs from the level: every journaled cell, in cell order, and the
+    // boxes on it if they are not the level's
+    void writeDelta(ByteBuffer out) {
+        changedCells.sort();
+        out.putInt(changedCells.size);
+        for (int i = 0; i < changedCells.size; i++) {
+            int cell = changedCells.get(i);
+            out.putShort((short) cell);
+            out.putShort(tiles[cell]);
+            out.put((byte) (isSolid(cell) ? 1 : 0));
+        }
+        if (!boxesChanged) {
+            out.putInt(NO_BOXES);
+            return;
+        }
+        out.putInt(boxes.size);
+        for (GameMap.Box box : boxes) {
+            out.putInt(box.originalCol);
+            out.putInt(box.originalRow);
+            out.putInt(box.roomIndex);
+            out.putFloat(box.bounds.x);
+            out.putFloat(box.bounds.y);
+        }
+    }
+
+    // Applies writeDelta's output to a chunk just filled from the level, without telling
+    // anyone; the map takes over the boxes once the chunk is loaded
+    void readDelta(ByteBuffer in) {
+        int cellCount = in.getInt();
+        for (int i = 0; i < cellCount; i++) {
+            int cell = in.getShort();
+            setTile(cell, in.getShort());
+            setSolid(cell, in.get() != 0);
+            markChanged(cell);
+        }
+        int boxCount = in.getInt();
+        if (boxCount == NO_BOXES) {
+            return;
+        }
+        boxes.clear();
+        for (int i = 0; i < boxCount; i++) {
+            boxes.add(readBox(in));
+        }
+        boxesChanged = true;
+    }
+
+    static GameMap.Box readBox(ByteBuffer in) {
+        int col = in.getInt();
+        int row = in.getInt();
+        int room = in.getInt();
+        Rectangle bounds = new Rectangle(in.getFloat(), in.getFloat(), GameMap.TILE_SIZE, GameMap.TILE_SIZE);
+        return new GameMap.Box(bounds, col, row, room);
+    }
+
+    // Walks writeDelta's output for the chunk at chunkX, chunkY without applying it,
+    // returning its size
+    static int checkDelta(ByteBuffer in, int maxBoxes, LevelImage image, int chunkX, int chunkY) {
+        int start = in.position();
+        int cellCount = in.getInt();
+        if (cellCount < 0 || cellCount > CELLS) {
+            throw new IllegalArgumentException("Saved chunk has " + cellCount + " changed cells");
+        }
+        for (int i = 0; i < cellCount; i++) {
+            int cell = in.getShort();
+            if (cell < 0 || cell >= CELLS
+                    || image.getRoom(chunkX << SHIFT | cell & MASK, chunkY << SHIFT | cell >>> SHIFT) == WorldGrid.NO_ROOM) {
+                throw new IllegalArgumentException("Saved cell " + cell + " is outside every room");
+            }
+            in.position(in.position() + 2 + 1);
+        }
+        int boxCount = in.getInt();
+        if (boxCount < NO_BOXES || boxCount > maxBoxes) {
+            throw new IllegalArgumentException("Saved chunk has " + boxCount + " boxes");
+        }
+        for (int i = 0; i < boxCount; i++) {
+            in.position(in.position() + 4 * 3);
+            if (!Float.isFinite(in.getFloat()) || !Float.isFinite(in.getFloat())) {
+                throw new IllegalArgumentException("Saved box is nowhere");
+            }
+        }
+        return in.position() - start;
+    }
+
+    @Override
+    public void reset() {
+        clearChanges();
+        boxes.clear();
+        boxesChanged = false;
+        saws.clear();
+        boxTraps.clear();
+        boxTrapRooms.clear();
+        links.clear();
+        doorCells.clear();
+        exitWallCells.clear();
+        trapCells.clear();
+        trapBoxCells.clear();
+        doorButtonCells.clear();
+    }
+}
@@ -0,0 +1,292 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Pool;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
+import java.nio.ByteBuffer;
+
+public class ChunkStore {
+    // Holds the chunks of a level that are in use and loads the rest from its LevelImage
+    // when something looks at them. The chunks within RADIUS of the focus (the player) are
+    // always kept; past that, once resident chunks and saved changes fill the memory budget,
+    // the least recently used chunk is evicted. A chunk that differs from the level is saved
+    // as a delta first and loaded back from it, so nothing it held is lost. Lookups are an
+    // array read, and the work per frame depends on the budget, never on the level's size.
+    public interface Listener {
+        // The chunk and its entities are in place, with any saved delta applied
+        void onChunkLoaded(Chunk chunk);
+
+        // The chunk is about to go; its entities are still listed
+        void onChunkEvicting(Chunk chunk);
+    }
+
+    public static final String BUDGET_PROPERTY = "monkey.chunkBudget"; // In megabytes
+    private static final long DEFAULT_BUDGET = 64L << 20;
+    static final int RADIUS = 2;
+    // The window around the focus, plus room for the few chunks one move or query touches
+    private static final int MIN_RESIDENT = (2 * RADIUS + 1) * (2 * RADIUS + 1) + 8;
+    private static final int SAVED_OVERHEAD = 32; // Map entry and array header per saved delta
+
+    private final LevelImage image;  // Null for a blank store
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final int chunksY;
+    private final Chunk[] slots;
+    private final Array<Chunk> resident = new Array<>(false, 16);
+    private final IntMap<byte[]> saved = new IntMap<>();
+    private int savedCells;
+    private long savedBytes;
+    private long budget;
+    private int maxResident;
+    private Listener listener;
+    private long clock;
+    private int focusX;
+    private int focusY;
+    private final Pool<Chunk> chunkPool = new Pool<Chunk>() {
+        @Override
+        protected Chunk newObject() {
+            return new Chunk();
+        }
+    };
+
+    ChunkStore(LevelImage image) {
+        this(image, image.getWidth(), image.getHeight(), budgetFromProperty());
+    }
+
+    // A store of width x height tiles outside every room, with no level behind it and no budget
+    ChunkStore(int width, int height) {
+        this(null, width, height, Long.MAX_VALUE);
+    }
+
+    private ChunkStore(LevelImage image, int width, int height, long budget) {
+        this.image = image;
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + Chunk.MASK) >> Chunk.SHIFT;
+        this.chunksY = (height + Chunk.MASK) >> Chunk.SHIFT;
+        this.slots = new Chunk[chunksX * chunksY];
+        setBudget(budget);
+    }
+
+    private static long budgetFromProperty() {
+        String configured = System.getProperty(BUDGET_PROPERTY);
+        if (configured == null) {
+            return DEFAULT_BUDGET;
+        }
+        try {
+            return Long.parseLong(configured.trim()) << 20;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(BUDGET_PROPERTY + " must be a number of megabytes, not " + configured, e);
+        }
+    }
+
+    LevelImage getImage() {
+        return image;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Bytes that resident chunks and saved deltas may use. Never fewer chunks than the
+    // window around the focus stay resident, however small the budget.
+    public void setBudget(long bytes) {
+        budget = bytes;
+        updateMaxResident();
+        while (resident.size > maxResident && evictOne()) {
+            // Keep evicting
+        }
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    private void updateMaxResident() {
+        long chunks = Math.max(budget - savedBytes, 0) / Chunk.BYTES;
+        maxResident = (int) Math.max(Math.min(chunks, Integer.MAX_VALUE), MIN_RESIDENT);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean contains(int col, int row) {
+        return col >= 0 && col < width && row >= 0 && row < height;
+    }
+
+    // The chunk holding a world tile, loaded if it has to be; the tile must be in the world
+    Chunk get(int col, int row) {
+        int index = (row >> Chunk.SHIFT) * chunksX + (col >> Chunk.SHIFT);
+        Chunk chunk = slots[index];
+        if (chunk == null) {
+            chunk = load(index);
+        }
+        chunk.lastUsed = ++clock;
+        return chunk;
+    }
+
+    // Chunks loaded now, in no particular order
+    Array<Chunk> getResident() {
+        return resident;
+    }
+
+    public int getResidentCount() {
+        return resident.size;
+    }
+
+    public int getSavedCount() {
+        return saved.size;
+    }
+
+    // Changed cells in the whole level, resident or saved
+    int getChangedCount() {
+        int count = savedCells;
+        for (Chunk chunk : resident) {
+            count += chunk.changedCells.size;
+        }
+        return count;
+    }
+
+    // Keeps the chunks around a world tile resident from now on, loading any that are not
+    void setFocus(int col, int row) {
+        int chunkX = clamp(col >> Chunk.SHIFT, chunksX);
+        int chunkY = clamp(row >> Chunk.SHIFT, chunksY);
+        if (chunkX == focusX && chunkY == focusY && slots[chunkY * chunksX + chunkX] != null) {
+            return;
+        }
+        focusX = chunkX;
+        focusY = chunkY;
+        load(chunkX - RADIUS, chunkY - RADIUS, chunkX + RADIUS, chunkY + RADIUS);
+    }
+
+    // Loads every chunk in a range of chunk coordinates, clamped to the world
+    void load(int minX, int minY, int maxX, int maxY) {
+        for (int chunkY = Math.max(minY, 0); chunkY <= Math.min(maxY, chunksY - 1); chunkY++) {
+            for (int chunkX = Math.max(minX, 0); chunkX <= Math.min(maxX, chunksX - 1); chunkX++) {
+                int index = chunkY * chunksX + chunkX;
+                Chunk chunk = slots[index];
+                if (chunk == null) {
+                    chunk = load(index);
+                }
+                chunk.lastUsed = ++clock;
+            }
+        }
+    }
+
+    // Loads the chunks under a rectangle of world tiles, clamped to the world
+    void loadTiles(int minCol, int minRow, int maxCol, int maxRow) {
+        load(minCol >> Chunk.SHIFT, minRow >> Chunk.SHIFT, maxCol >> Chunk.SHIFT, maxRow >> Chunk.SHIFT);
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.min(Math.max(index, 0), size - 1);
+    }
+
+    private Chunk load(int index) {
+        if (resident.size >= maxResident) {
+            evictOne();
+        }
+        Chunk chunk = chunkPool.obtain();
+        chunk.init(index, index % chunksX, index / chunksX);
+        if (image != null) {
+            image.readChunk(chunk);
+        } else {
+            chunk.fillBlank();
+        }
+        chunk.findEventCells();
+        byte[] delta = saved.remove(index);
+        if (delta != null) {
+            ByteBuffer in = ByteBuffer.wrap(delta);
+            savedCells -= in.getInt(0);
+            savedBytes -= delta.length + SAVED_OVERHEAD;
+            chunk.readDelta(in);
+            updateMaxResident();
+        }
+        slots[index] = chunk;
+        resident.add(chunk);
+        EventLog.log(LogEvent.CHUNK_LOADED, chunk.chunkX, chunk.chunkY, delta != null ? 1 : 0);
+        if (listener != null) {
+            listener.onChunkLoaded(chunk);
+        }
+        return chunk;
+    }
+
+    // Evicts the least recently used chunk outside the window, if there is one
+    private boolean evictOne() {
+        int victim = -1;
+        for (int i = 0; i < resident.size; i++) {
+            Chunk chunk = resident.get(i);
+            if (Math.abs(chunk.chunkX - focusX) <= RADIUS && Math.abs(chunk.chunkY - focusY) <= RADIUS) {
+                continue;
+            }
+            if (victim < 0 || chunk.lastUsed < resident.get(victim).lastUsed) {
+                victim = i;
+            }
+        }
+        if (victim < 0) {
+            return false;
+        }
+        Chunk chunk = resident.removeIndex(victim);
+        if (listener != null) {
+            listener.onChunkEvicting(chunk);
+        }
+        boolean dirty = chunk.isDirty();
+        if (dirty) {
+            ByteBuffer delta = ByteBuffer.allocate(chunk.deltaBytes());
+            chunk.writeDelta(delta);
+            saved.put(chunk.index, delta.array());
+            savedCells += chunk.changedCells.size;
+            savedBytes += delta.capacity() + SAVED_OVERHEAD;
+            updateMaxResident();
+        }
+        EventLog.log(LogEvent.CHUNK_EVICTED, chunk.chunkX, chunk.chunkY, dirty ? 1 : 0);
+        slots[chunk.index] = null;
+        chunkPool.free(chunk);
+        return true;
+    }
+
+    // The saved delta of an evicted chunk, or null if it went unchanged
+    byte[] getSaved(int index) {
+        return saved.get(index);
+    }
+
+    IntMap.Keys savedIndices() {
+        return saved.keys();
+    }
+
+    boolean isResident(int index) {
+        return slots[index] != null;
+    }
+
+    Chunk getResident(int index) {
+        return slots[index];
+    }
+
+    // Keeps a delta for a chunk that is not resident, to apply when it loads
+    void putSaved(int index, byte[] delta) {
+        byte[] old = saved.put(index, delta);
+        if (old != null) {
+            savedCells -= ByteBuffer.wrap(old).getInt(0);
+            savedBytes -= old.length + SAVED_OVERHEAD;
+        }
+        savedCells += ByteBuffer.wrap(delta).getInt(0);
+        savedBytes += delta.length + SAVED_OVERHEAD;
+        updateMaxResident();
+    }
+
+    // Forgets every saved delta, so evicted chunks load as the level has them
+    void dropSaved() {
+        saved.clear();
+        savedCells = 0;
+        savedBytes = 0;
+        updateMaxResident();
+    }
+}
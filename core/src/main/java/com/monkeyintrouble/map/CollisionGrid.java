@@ -0,0 +1,152 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.math.Rectangle;
+
+public class CollisionGrid {
+    // One bit per tile, kept in the chunks of a ChunkStore as a 32-bit word per chunk row.
+    // Row 0 is the bottom row of the world so cell coordinates line up with world-space
+    // pixels divided by the tile size.
+    private final ChunkStore chunks;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+
+    // A grid of its own with nothing solid, for tests and tools
+    public CollisionGrid(int width, int height, int tileSize) {
+        this(new ChunkStore(width, height), tileSize);
+    }
+
+    CollisionGrid(ChunkStore chunks, int tileSize) {
+        this.chunks = chunks;
+        this.width = chunks.getWidth();
+        this.height = chunks.getHeight();
+        this.tileSize = tileSize;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isSolid(int col, int row) {
+        if (col < 0 || col >= width || row < 0 || row >= height) {
+            return false;
+        }
+        return chunks.get(col, row).isSolid(Chunk.cellOf(col, row));
+    }
+
+    public void setSolid(int col, int row, boolean solid) {
+        if (col < 0 || col >= width || row < 0 || row >= height) {
+            return;
+        }
+        chunks.get(col, row).setSolid(Chunk.cellOf(col, row), solid);
+    }
+
+    // Puts one tile back the way the level has it
+    public void restore(int col, int row) {
+        setSolid(col, row, chunks.getImage().isSolid(col, row));
+    }
+
+    public boolean overlaps(Rectangle bounds) {
+        return overlaps(bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+
+    public boolean overlaps(float x, float y, float w, float h) {
+        // Only the tiles under the rectangle are inspected, so the cost is independent
+        // of the world size (1-4 tiles for anything up to a tile in size)
+        int minCol = Math.max(firstCell(x, tileSize), 0);
+        int maxCol = Math.min(lastCell(x, w, tileSize), width - 1);
+        int minRow = Math.max(firstCell(y, tileSize), 0);
+        int maxRow = Math.min(lastCell(y, h, tileSize), height - 1);
+        for (int row = minRow; row <= maxRow; row++) {
+            if (isRowSolid(row, minCol, maxCol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Where a rectangle moving dx along x stops: at x + dx, or flush against the first solid
+    // tile its leading edge would cross. Only the columns crossed are inspected, so a long
+    // move costs a few more columns instead of passing through a wall. Tiles the rectangle
+    // already overlaps never block it, so it can always move out of them.
+    public float sweepX(float x, float y, float w, float h, float dx) {
+        int minRow = Math.max(firstCell(y, tileSize), 0);
+        int maxRow = Math.min(lastCell(y, h, tileSize), height - 1);
+        if (dx > 0) {
+            int last = Math.min(lastCell(x + dx, w, tileSize), width - 1);
+            for (int col = Math.max(lastCell(x, w, tileSize) + 1, 0); col <= last; col++) {
+                if (isColumnSolid(col, minRow, maxRow)) {
+                    return col * tileSize - w;
+                }
+            }
+        } else if (dx < 0) {
+            int last = Math.max(firstCell(x + dx, tileSize), 0);
+            for (int col = Math.min(firstCell(x, tileSize) - 1, width - 1); col >= last; col--) {
+                if (isColumnSolid(col, minRow, maxRow)) {
+                    return (col + 1) * tileSize;
+                }
+            }
+        }
+        return x + dx;
+    }
+
+    // The same along y
+    public float sweepY(float x, float y, float w, float h, float dy) {
+        int minCol = Math.max(firstCell(x, tileSize), 0);
+        int maxCol = Math.min(lastCell(x, w, tileSize), width - 1);
+        if (dy > 0) {
+            int last = Math.min(lastCell(y + dy, h, tileSize), height - 1);
+            for (int row = Math.max(lastCell(y, h, tileSize) + 1, 0); row <= last; row++) {
+                if (isRowSolid(row, minCol, maxCol)) {
+                    return row * tileSize - h;
+                }
+            }
+        } else if (dy < 0) {
+            int last = Math.max(firstCell(y + dy, tileSize), 0);
+            for (int row = Math.min(firstCell(y, tileSize) - 1, height - 1); row >= last; row--) {
+                if (isRowSolid(row, minCol, maxCol)) {
+                    return (row + 1) * tileSize;
+                }
+            }
+        }
+        return y + dy;
+    }
+
+    private boolean isColumnSolid(int col, int minRow, int maxRow) {
+        int mask = 1 << (col & Chunk.MASK);
+        for (int row = minRow; row <= maxRow; row++) {
+            if ((chunks.get(col, row).solidRows[row & Chunk.MASK] & mask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A row's bits come a chunk's word at a time
+    private boolean isRowSolid(int row, int minCol, int maxCol) {
+        for (int col = minCol; col <= maxCol; col = (col | Chunk.MASK) + 1) {
+            int bits = chunks.get(col, row).solidRows[row & Chunk.MASK];
+            int last = Math.min(maxCol, col | Chunk.MASK);
+            int span = (-1 >>> (Chunk.MASK - (last & Chunk.MASK))) & (-1 << (col & Chunk.MASK));
+            if ((bits & span) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // First tile touched by a span starting at pos
+    static int firstCell(float pos, int tileSize) {
+        return (int) Math.floor(pos / tileSize);
+    }
+
+    // Last tile touched by [pos, pos + size). Matches Rectangle.overlaps, which treats
+    // touching edges as not overlapping.
+    static int lastCell(float pos, float size, int tileSize) {
+        return (int) Math.ceil((pos + size) / tileSize) - 1;
+    }
+}
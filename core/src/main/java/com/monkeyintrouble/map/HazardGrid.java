@@ -0,0 +1,155 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+
+public class HazardGrid {
+    // Broad phase for hazards. Each hitbox is filed under the world tile holding its
+    // bottom-left corner, in a hash of per-tile lists, so only tiles that hold hazards cost
+    // memory and a query walks the few tiles around the rectangle asked about, however many
+    // hazards the level has. Hitboxes are at most a tile in size, so anything overlapping a
+    // rectangle has its corner at most one tile left of or below it. Moving hazards call
+    // update, which only relinks them when their corner crosses into another tile.
+    private static final int NONE = -1;
+
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final IntIntMap firstInCell = new IntIntMap();
+    private final Array<Rectangle> hitboxes = new Array<>();
+    private final IntArray kinds = new IntArray();
+    private final IntArray owners = new IntArray();
+    private final IntArray cells = new IntArray();  // NONE while the id is free
+    private final IntArray next = new IntArray();
+    private final IntArray previous = new IntArray();
+    private final IntArray freeIds = new IntArray();
+    private int size;
+
+    public HazardGrid(int width, int height, int tileSize) {
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+    }
+
+    // Files a hitbox and returns its id. Kind and owner are the caller's to interpret.
+    public int add(Rectangle hitbox, int kind, int owner) {
+        if (hitbox.width > tileSize || hitbox.height > tileSize) {
+            throw new IllegalArgumentException("Hazards can be at most one tile in size");
+        }
+        int id;
+        if (freeIds.size > 0) {
+            id = freeIds.pop();
+            hitboxes.set(id, hitbox);
+            kinds.set(id, kind);
+            owners.set(id, owner);
+        } else {
+            id = hitboxes.size;
+            hitboxes.add(hitbox);
+            kinds.add(kind);
+            owners.add(owner);
+            cells.add(NONE);
+            next.add(NONE);
+            previous.add(NONE);
+        }
+        link(id, cellOf(hitbox));
+        size++;
+        return id;
+    }
+
+    public void remove(int id) {
+        unlink(id);
+        cells.set(id, NONE);
+        hitboxes.set(id, null);
+        freeIds.add(id);
+        size--;
+    }
+
+    // Call after the hitbox moved
+    public void update(int id) {
+        int cell = cellOf(hitboxes.get(id));
+        if (cell != cells.get(id)) {
+            unlink(id);
+            link(id, cell);
+        }
+    }
+
+    // Ids of the hazards whose hitboxes overlap bounds, replacing what out held
+    public void query(Rectangle bounds, IntArray out) {
+        out.clear();
+        // Clamped at both ends: bounds outside the world still meet what is filed at its edge
+        int minCol = clamp(CollisionGrid.firstCell(bounds.x, tileSize) - 1, width);
+        int maxCol = clamp(CollisionGrid.lastCell(bounds.x, bounds.width, tileSize), width);
+        int minRow = clamp(CollisionGrid.firstCell(bounds.y, tileSize) - 1, height);
+        int maxRow = clamp(CollisionGrid.lastCell(bounds.y, bounds.height, tileSize), height);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                for (int id = firstInCell.get(row * width + col, NONE); id != NONE; id = next.get(id)) {
+                    if (hitboxes.get(id).overlaps(bounds)) {
+                        out.add(id);
+                    }
+                }
+            }
+        }
+    }
+
+    public Rectangle getHitbox(int id) {
+        return hitboxes.get(id);
+    }
+
+    public int getKind(int id) {
+        return kinds.get(id);
+    }
+
+    public int getOwner(int id) {
+        return owners.get(id);
+    }
+
+    // For owners that are indices into a list the caller reorders
+    public void setOwner(int id, int owner) {
+        owners.set(id, owner);
+    }
+
+    // Hazards currently filed
+    public int size() {
+        return size;
+    }
+
+    // Corners outside the world are filed under the nearest edge tile
+    private int cellOf(Rectangle hitbox) {
+        int col = clamp(CollisionGrid.firstCell(hitbox.x, tileSize), width);
+        int row = clamp(CollisionGrid.firstCell(hitbox.y, tileSize), height);
+        return row * width + col;
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.min(Math.max(index, 0), size - 1);
+    }
+
+    private void link(int id, int cell) {
+        int first = firstInCell.get(cell, NONE);
+        cells.set(id, cell);
+        previous.set(id, NONE);
+        next.set(id, first);
+        if (first != NONE) {
+            previous.set(first, id);
+        }
+        firstInCell.put(cell, id);
+    }
+
+    private void unlink(int id) {
+        int before = previous.get(id);
+        int after = next.get(id);
+        if (after != NONE) {
+            previous.set(after, before);
+        }
+        if (before != NONE) {
+            next.set(before, after);
+        } else if (after != NONE) {
+            firstInCell.put(cells.get(id), after);
+        } else {
+            firstInCell.remove(cells.get(id), NONE);
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+class LevelBuilder {
+    // Scans the rooms of a level and lays the result out as a LevelImage: boxes and saws
+    // become floor, and collision, trigger kinds, box traps and teleporter links are worked
+    // out with every entity filed under its chunk. This is the only code that looks at
+    // every cell of a level, so it runs once per level, not on every load.
+    private static final int TILE_SIZE = GameMap.TILE_SIZE;
+
+    private final Array<GameMap.Room> rooms;
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final short[] tiles;
+    private final short[] roomIds;
+    private final boolean[] solid;
+    private final byte[] kinds;
+    private final boolean[] touched;          // Chunks any room covers
+    private final IntArray boxes = new IntArray();           // col, row, room
+    private final FloatArray saws = new FloatArray();        // x, y
+    private final FloatArray fires = new FloatArray();       // x, y
+    private final FloatArray boxTraps = new FloatArray();    // Trap, box and button x, y
+    private final IntArray boxTrapRooms = new IntArray();
+    private final IntArray links = new IntArray();           // Pad cell, target cell
+    private final FloatArray linkOffsets = new FloatArray(); // x, y
+
+    private LevelBuilder(Array<GameMap.Room> rooms) {
+        this.rooms = rooms;
+        // Size the world grid to cover every room
+        int worldWidth = 0;
+        int worldHeight = 0;
+        for (GameMap.Room room : rooms) {
+            worldWidth = Math.max(worldWidth, room.endCol());
+            worldHeight = Math.max(worldHeight, room.topRow() + 1);
+        }
+        width = worldWidth;
+        height = worldHeight;
+        chunksX = (width + Chunk.MASK) >> Chunk.SHIFT;
+        tiles = new short[width * height];
+        roomIds = new short[width * height];
+        Arrays.fill(roomIds, (short) WorldGrid.NO_ROOM);
+        solid = new boolean[width * height];
+        kinds = new byte[width * height];
+        touched = new boolean[chunksX * ((height + Chunk.MASK) >> Chunk.SHIFT)];
+    }
+
+    // Rooms must not overlap. Room 0 holds the 34 teleporters and room 1 their 66 destination.
+    static LevelImage build(Array<GameMap.Room> rooms) {
+        LevelBuilder builder = new LevelBuilder(rooms);
+        for (int roomIndex = 0; roomIndex < rooms.size; roomIndex++) {
+            builder.place(rooms.get(roomIndex), roomIndex);
+        }
+
+        // Create collision boxes and track boxes for all rooms
+        for (int roomIndex = 0; roomIndex < rooms.size; roomIndex++) {
+            builder.createCollisionBoxes(rooms.get(roomIndex), roomIndex);
+        }
+        for (int roomIndex = 0; roomIndex < rooms.size; roomIndex++) {
+            builder.scanTriggers(rooms.get(roomIndex), roomIndex);
+        }
+        builder.linkTeleporters();
+        return new LevelImage(builder.write());
+    }
+
+    private void place(GameMap.Room room, int roomIndex) {
+        for (int y = 0; y < room.height; y++) {
+            for (int x = 0; x < room.width; x++) {
+                int col = room.worldCol(x);
+                int row = room.worldRow(y);
+                int cell = row * width + col;
+                if (roomIds[cell] != WorldGrid.NO_ROOM) {
+                    throw new IllegalArgumentException("Rooms " + roomIds[cell] + " and " + roomIndex + " overlap at " + col + "," + row);
+                }
+                tiles[cell] = (short) room.getSourceTile(x, y);
+                roomIds[cell] = (short) roomIndex;
+                touched[(row >> Chunk.SHIFT) * chunksX + (col >> Chunk.SHIFT)] = true;
+            }
+        }
+    }
+
+    private void createCollisionBoxes(GameMap.Room room, int roomIndex) {
+        for (int row = room.topRow(); row >= room.offsetY; row--) {
+            for (int col = room.offsetX; col < room.endCol(); col++) {
+                int cell = row * width + col;
+                int tileId = tiles[cell];
+                int flags = TileType.flagsOf(tileId);
+                float worldX = col * TILE_SIZE;
+                float worldY = row * TILE_SIZE;
+
+                if ((flags & TileType.COLLIDABLE) != 0) {
+                    solid[cell] = true;
+                }
+                if ((flags & TileType.PUSHABLE) != 0) {
+                    EventLog.log(LogEvent.BOX_CREATED, col, row, roomIndex);
+                    boxes.add(col, row, roomIndex);
+                    // Replace the box tile with floor (1.png)
+                    tiles[cell] = TileType.FLOOR_ID;
+                }
+                // Handle saw trap tiles
+                if (TileType.isSawTrap(tileId)) {
+                    saws.add(worldX, worldY);
+                    EventLog.log(LogEvent.SAW_TRAP_CREATED, worldX, worldY);
+
+                    // Replace trap tiles with floor
+                    for (int i = 0; i < 3; i++) {
+                        if (col + i < room.endCol()) {
+                            tiles[cell + i] = TileType.FLOOR_ID;
+                        }
+                    }
+                }
+                // Store fire hazard starting positions
+                if (TileType.isFireEmitter(tileId)) {
+                    fires.add(worldX, worldY);
+                    EventLog.log(LogEvent.FIRE_START_STORED, worldX, worldY);
+                }
+            }
+        }
+    }
+
+    // Files trigger kinds and pairs the traps, trap boxes and buttons of a room in scan
+    // order. Traps left over without a box or button of their own still open with the
+    // room's plates.
+    private void scanTriggers(GameMap.Room room, int roomIndex) {
+        IntArray trapCells = new IntArray();
+        IntArray trapBoxCells = new IntArray();
+        IntArray plateCells = new IntArray();
+        for (int row = room.topRow(); row >= room.offsetY; row--) {
+            for (int col = room.offsetX; col < room.endCol(); col++) {
+                int cell = row * width + col;
+                int tileId = tiles[cell];
+                if (TileType.isTrap(tileId)) {
+                    trapCells.add(cell);
+                }
+                if (tileId == TileType.TRAP_BOX_ID) {
+                    trapBoxCells.add(cell);
+                }
+                if (tileId == TileType.BUTTON_ID) {
+                    plateCells.add(cell);
+                }
+                kinds[cell] = TriggerIndex.kindOf(tileId);
+            }
+        }
+        for (int i = 0; i < trapCells.size; i++) {
+            int trapCell = trapCells.get(i);
+            float trapX = trapCell % width * TILE_SIZE;
+            float trapY = trapCell / width * TILE_SIZE;
+            if (i >= trapBoxCells.size || i >= plateCells.size) {
+                EventLog.log(LogEvent.BOX_TRAP_INCOMPLETE, trapCell % width, trapCell / width);
+                continue;
+            }
+            int boxCell = trapBoxCells.get(i);
+            int buttonCell = plateCells.get(i);
+            EventLog.log(LogEvent.BOX_TRAP_CREATED, trapX, trapY);
+            boxTraps.add(trapX, trapY);
+            boxTraps.add(boxCell % width * TILE_SIZE, boxCell / width * TILE_SIZE);
+            boxTraps.add(buttonCell % width * TILE_SIZE, buttonCell / width * TILE_SIZE);
+            boxTrapRooms.add(roomIndex);
+        }
+    }
+
+    // Resolves every teleporter pad to its destination once, so stepping on a pad is a lookup.
+    // Pads pair up by tile id: 52 leads above the first 69, 69 next to the first 51, 34 two
+    // tiles right of the first 66 in room 1, and 67/68 two tiles left of the first 34 in room 0.
+    private void linkTeleporters() {
+        int first69 = -1;
+        int first51 = -1;
+        int first66InRoom1 = -1;
+        int first34InRoom0 = -1;
+        IntArray pads = new IntArray();
+        for (int roomIndex = 0; roomIndex < rooms.size; roomIndex++) {
+            GameMap.Room room = rooms.get(roomIndex);
+            for (int row = room.topRow(); row >= room.offsetY; row--) {
+                for (int col = room.offsetX; col < room.endCol(); col++) {
+                    int cell = row * width + col;
+                    int tileId = tiles[cell];
+                    if (tileId == 69 && first69 < 0) {
+                        first69 = cell;
+                    } else if (tileId == 51 && first51 < 0) {
+                        first51 = cell;
+                    } else if (tileId == 66 && roomIndex == 1 && first66InRoom1 < 0) {
+                        first66InRoom1 = cell;
+                    }
+                    if (tileId == 34 && roomIndex == 0 && first34InRoom0 < 0) {
+                        first34InRoom0 = cell;
+                    }
+                    if (TileType.hasFlag(tileId, TileType.TELEPORTER)) {
+                        pads.add(cell, tileId);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < pads.size; i += 2) {
+            int target;
+            float offsetX = 0;
+            float offsetY = 0;
+            switch (pads.get(i + 1)) {
+                case 52:
+                    target = first69;
+                    offsetY = TILE_SIZE; // One block above the 69
+                    break;
+                case 69:
+                    target = first51;
+                    offsetX = 2; // Small offset to prevent immediate re-teleport
+                    break;
+                case 34:
+                    target = first66InRoom1;
+                    offsetX = 2 * TILE_SIZE;
+                    break;
+                default: // 67, 68
+                    target = first34InRoom0;
+                    offsetX = -2 * TILE_SIZE;
+                    break;
+            }
+            if (target >= 0) {
+                int pad = pads.get(i);
+                EventLog.log(LogEvent.TELEPORTER_LINKED, links.size / 2, pad % width, pad / width);
+                links.add(pad, target);
+                linkOffsets.add(offsetX, offsetY);
+            }
+        }
+    }
+
+    private int chunkOfCell(int cell) {
+        return (cell / width >> Chunk.SHIFT) * chunksX + (cell % width >> Chunk.SHIFT);
+    }
+
+    private int chunkOfPixel(float x, float y) {
+        return chunkOfCell((int) (y / TILE_SIZE) * width + (int) (x / TILE_SIZE));
+    }
+
+    private ByteBuffer write() {
+        int chunkCount = touched.length;
+        // Every entity's chunk, then the entities grouped by chunk in scan order
+        IntArray boxChunks = new IntArray(boxes.size / 3);
+        for (int i = 0; i < boxes.size; i += 3) {
+            boxChunks.add(chunkOfCell(boxes.get(i + 1) * width + boxes.get(i)));
+        }
+        IntArray sawChunks = new IntArray(saws.size / 2);
+        for (int i = 0; i < saws.size; i += 2) {
+            sawChunks.add(chunkOfPixel(saws.get(i), saws.get(i + 1)));
+        }
+        IntArray trapChunks = new IntArray(boxTrapRooms.size);
+        for (int i = 0; i < boxTraps.size; i += 6) {
+            trapChunks.add(chunkOfPixel(boxTraps.get(i), boxTraps.get(i + 1)));
+        }
+        IntArray linkChunks = new IntArray(links.size / 2);
+        for (int i = 0; i < links.size; i += 2) {
+            linkChunks.add(chunkOfCell(links.get(i)));
+        }
+        int[] boxStart = new int[chunkCount + 1];
+        int[] boxOrder = groupByChunk(boxChunks, boxStart);
+        int[] sawStart = new int[chunkCount + 1];
+        int[] sawOrder = groupByChunk(sawChunks, sawStart);
+        int[] trapStart = new int[chunkCount + 1];
+        int[] trapOrder = groupByChunk(trapChunks, trapStart);
+        int[] linkStart = new int[chunkCount + 1];
+        int[] linkOrder = groupByChunk(linkChunks, linkStart);
+
+        int headerBytes = 4 + 4 + 8 + 4 + rooms.size * 4 * 4 + 4 * 4 + fires.size * 4 + chunkCount * 4;
+        long size = headerBytes;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (touched[chunk]) {
+                size += LevelImage.ENTITIES_AT
+                    + 4 + (boxStart[chunk + 1] - boxStart[chunk]) * LevelImage.BOX_BYTES
+                    + 4 + (sawStart[chunk + 1] - sawStart[chunk]) * LevelImage.SAW_BYTES
+                    + 4 + (trapStart[chunk + 1] - trapStart[chunk]) * LevelImage.BOX_TRAP_BYTES
+                    + 4 + (linkStart[chunk + 1] - linkStart[chunk]) * LevelImage.LINK_BYTES;
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Level of " + width + "x" + height + " tiles is too large");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(width);
+        out.putInt(height);
+        out.putLong(tileHash());
+        out.putInt(rooms.size);
+        for (GameMap.Room room : rooms) {
+            out.putInt(room.offsetX);
+            out.putInt(room.offsetY);
+            out.putInt(room.width);
+            out.putInt(room.height);
+        }
+        out.putInt(boxes.size / 3);
+        out.putInt(saws.size / 2);
+        out.putInt(boxTrapRooms.size);
+        out.putInt(fires.size / 2);
+        for (int i = 0; i < fires.size; i++) {
+            out.putFloat(fires.get(i));
+        }
+        int offset = headerBytes;
+        int offsetsAt = out.position();
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (!touched[chunk]) {
+                out.putInt(offsetsAt + chunk * 4, LevelImage.NO_CHUNK);
+                continue;
+            }
+            out.putInt(offsetsAt + chunk * 4, offset);
+            out.position(offset);
+            writeChunk(out, chunk);
+            writeBoxes(out, boxOrder, boxStart[chunk], boxStart[chunk + 1]);
+            out.putInt(sawStart[chunk + 1] - sawStart[chunk]);
+            for (int i = sawStart[chunk]; i < sawStart[chunk + 1]; i++) {
+                out.putFloat(saws.get(sawOrder[i] * 2));
+                out.putFloat(saws.get(sawOrder[i] * 2 + 1));
+            }
+            out.putInt(trapStart[chunk + 1] - trapStart[chunk]);
+            for (int i = trapStart[chunk]; i < trapStart[chunk + 1]; i++) {
+                for (int j = 0; j < 6; j++) {
+                    out.putFloat(boxTraps.get(trapOrder[i] * 6 + j));
+                }
+                out.putInt(boxTrapRooms.get(trapOrder[i]));
+            }
+            TeleporterLinks chunkLinks = new TeleporterLinks(Chunk.SIZE);
+            for (int i = linkStart[chunk]; i < linkStart[chunk + 1]; i++) {
+                int pad = links.get(linkOrder[i] * 2);
+                int target = links.get(linkOrder[i] * 2 + 1);
+                chunkLinks.link(pad % width & Chunk.MASK, pad / width & Chunk.MASK, target % width, target / width,
+                    linkOffsets.get(linkOrder[i] * 2), linkOffsets.get(linkOrder[i] * 2 + 1), GameMap.TELEPORT_COOLDOWN_DURATION);
+            }
+            chunkLinks.write(out);
+            offset = out.position();
+        }
+        out.position(0);
+        return out;
+    }
+
+    // Tiles, rooms, trigger kinds and collision rows of one chunk, cells past the world's
+    // edge outside every room
+    private void writeChunk(ByteBuffer out, int chunk) {
+        int startCol = (chunk % chunksX) << Chunk.SHIFT;
+        int startRow = (chunk / chunksX) << Chunk.SHIFT;
+        for (int local = 0; local < Chunk.CELLS; local++) {
+            int cell = cellAt(startCol, startRow, local);
+            out.putShort(cell < 0 ? 0 : tiles[cell]);
+        }
+        for (int local = 0; local < Chunk.CELLS; local++) {
+            int cell = cellAt(startCol, startRow, local);
+            out.putShort(cell < 0 ? (short) WorldGrid.NO_ROOM : roomIds[cell]);
+        }
+        for (int local = 0; local < Chunk.CELLS; local++) {
+            int cell = cellAt(startCol, startRow, local);
+            out.put(cell < 0 ? TriggerIndex.NONE : kinds[cell]);
+        }
+        for (int row = 0; row < Chunk.SIZE; row++) {
+            int bits = 0;
+            for (int col = 0; col < Chunk.SIZE; col++) {
+                int cell = cellAt(startCol, startRow, row << Chunk.SHIFT | col);
+                if (cell >= 0 && solid[cell]) {
+                    bits |= 1 << col;
+                }
+            }
+            out.putInt(bits);
+        }
+    }
+
+    private int cellAt(int startCol, int startRow, int local) {
+        int col = startCol + (local & Chunk.MASK);
+        int row = startRow + (local >>> Chunk.SHIFT);
+        return col < width && row < height ? row * width + col : -1;
+    }
+
+    private void writeBoxes(ByteBuffer out, int[] order, int from, int to) {
+        out.putInt(to - from);
+        for (int i = from; i < to; i++) {
+            out.putInt(boxes.get(order[i] * 3));
+            out.putInt(boxes.get(order[i] * 3 + 1));
+            out.putInt(boxes.get(order[i] * 3 + 2));
+        }
+    }
+
+    // Indices of the entities in each chunk, in their original order: chunk c holds
+    // order[start[c]] up to order[start[c + 1]]
+    private static int[] groupByChunk(IntArray chunkOf, int[] start) {
+        for (int i = 0; i < chunkOf.size; i++) {
+            start[chunkOf.get(i) + 1]++;
+        }
+        for (int chunk = 1; chunk < start.length; chunk++) {
+            start[chunk] += start[chunk - 1];
+        }
+        int[] next = Arrays.copyOf(start, start.length);
+        int[] order = new int[chunkOf.size];
+        for (int i = 0; i < chunkOf.size; i++) {
+            order[next[chunkOf.get(i)]++] = i;
+        }
+        return order;
+    }
+
+    // Size, then every cell's tile and room, the start of GameMap's level fingerprint
+    private long tileHash() {
+        long hash = GameMap.mix(GameMap.FINGERPRINT_SEED, width);
+        hash = GameMap.mix(hash, height);
+        for (int cell = 0; cell < tiles.length; cell++) {
+            hash = GameMap.mix(hash, tiles[cell] << 16 ^ roomIds[cell]);
+        }
+        return hash;
+    }
+}
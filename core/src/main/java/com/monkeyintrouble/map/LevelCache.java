@@ -0,0 +1,114 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class LevelCache {
+    // Compiled levels built at runtime from sources that are slow to read, kept on disk under
+    // a hash of those sources' contents. A level is only built again when a source changes;
+    // otherwise the cached file is memory-mapped like any compiled level. The directory is
+    // -Dmonkey.cache=<directory>, or .monkey-in-trouble/levels in the user's home.
+    public static final String CACHE_PROPERTY = "monkey.cache";
+
+    private final Path directory;
+
+    public interface Builder {
+        GameMap build() throws IOException;
+    }
+
+    public LevelCache() {
+        this(defaultDirectory());
+    }
+
+    public LevelCache(Path directory) {
+        this.directory = directory;
+    }
+
+    private static Path defaultDirectory() {
+        String configured = System.getProperty(CACHE_PROPERTY);
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".monkey-in-trouble", "levels");
+    }
+
+    // The cached level for these sources, building and caching it first if there is none.
+    // A cache that cannot be written only costs the next launch a rebuild.
+    public GameMap load(String name, Array<Path> sources, Builder builder) throws IOException {
+        Path cached = directory.resolve(name + "-" + hash(sources) + LevelFile.EXTENSION);
+        if (Files.isRegularFile(cached)) {
+            long start = TimeUtils.nanoTime();
+            try {
+                GameMap map = LevelFile.load(cached);
+                EventLog.log(LogEvent.LEVEL_CACHE_HIT, (int) TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(start)));
+                return map;
+            } catch (IOException e) {
+                // Damaged or from an older build: fall through and replace it
+                EventLog.log(LogEvent.LEVEL_CACHE_UNREADABLE);
+            }
+        }
+
+        long start = TimeUtils.nanoTime();
+        GameMap map = builder.build();
+        int buildMillis = (int) TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(start));
+        try {
+            Files.createDirectories(directory);
+            deleteStale(name, cached);
+            LevelFile.write(map, cached);
+            EventLog.log(LogEvent.LEVEL_CACHE_MISS, sources.size, buildMillis, 1);
+        } catch (IOException e) {
+            EventLog.log(LogEvent.LEVEL_CACHE_MISS, sources.size, buildMillis, 0);
+        }
+        return map;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Earlier builds of the same level can never be hit again
+    private void deleteStale(String name, Path current) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, name + "-*" + LevelFile.EXTENSION)) {
+            for (Path entry : entries) {
+                if (!entry.equals(current)) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        }
+    }
+
+    // Covers the compiled format too, so a format change never loads an old cache
+    static String hash(Array<Path> sources) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer header = ByteBuffer.allocate(4 + 8);
+        header.putInt(LevelFile.VERSION);
+        for (Path source : sources) {
+            byte[] contents = Files.readAllBytes(source);
+            header.putLong(contents.length);
+            digest.update(header.array(), 0, header.position());
+            digest.update(contents);
+            header.clear();
+        }
+        StringBuilder hex = new StringBuilder();
+        byte[] hash = digest.digest();
+        for (int i = 0; i < 12; i++) {
+            hex.append(Character.forDigit((hash[i] >> 4) & 0xf, 16)).append(Character.forDigit(hash[i] & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.monkeyintrouble.map;
+
+import com.monkeyintrouble.log.EventLog;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class LevelCompiler {
+    // Turns level sources (.json) into compiled levels (.level). The build runs this over
+    // assets/levels, so editing a level never needs the game's code rebuilt, and the game
+    // never parses or scans a level at runtime.
+    private LevelCompiler() {
+    }
+
+    // Arguments: the output directory, then the .json files to compile into it
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LevelCompiler <output directory> <level.json>...");
+            System.exit(2);
+        }
+        EventLog.setLevel(EventLog.NONE);
+        Path outputDir = Paths.get(args[0]);
+        Files.createDirectories(outputDir);
+        for (int i = 1; i < args.length; i++) {
+            Path source = Paths.get(args[i]);
+            Path target = outputDir.resolve(compiledName(source.getFileName().toString()));
+            compile(source, target);
+            System.out.println(source + " -> " + target + " (" + Files.size(target) + " bytes)");
+        }
+    }
+
+    public static void compile(Path source, Path target) throws IOException {
+        String json = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+        LevelFile.write(LevelSource.parse(json, source.toString()).build(), target);
+    }
+
+    // level1.json -> level1.level
+    static String compiledName(String sourceName) {
+        int dot = sourceName.lastIndexOf('.');
+        return (dot < 0 ? sourceName : sourceName.substring(0, dot)) + LevelFile.EXTENSION;
+    }
+}
@@ -0,0 +1,98 @@
+package com.monkeyintrouble.map;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class LevelFile {
+    // A compiled level: a header, then the LevelImage GameMap's scanning constructor builds.
+    // The image is laid out chunk by chunk with each chunk's entities beside its tiles, so
+    // the map runs straight out of the memory-mapped file and only the chunks it streams in
+    // are ever copied, instead of parsing and scanning every tile. LevelCompiler writes these.
+    private static final int MAGIC = 0x4d49544c; // "MITL"
+    static final int VERSION = 3;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 4 + 4; // Magic, version, start, payload length
+
+    public static final String EXTENSION = ".level";
+
+    private LevelFile() {
+    }
+
+    public static void write(GameMap map, Path file) throws IOException {
+        int size = HEADER_BYTES + map.getCompiledBytes();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putFloat(map.getStartX());
+        buffer.putFloat(map.getStartY());
+        buffer.putInt(size - HEADER_BYTES);
+        map.writeCompiled(buffer);
+        if (buffer.position() != size) {
+            throw new IllegalStateException("Level wrote " + buffer.position() + " bytes, expected " + size);
+        }
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Maps the file rather than reading it; the pages are only touched by the bulk copies
+    public static GameMap load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Level too large: " + file);
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file.toString());
+        }
+    }
+
+    // For levels that are not plain files, such as those packed into a jar
+    public static GameMap load(InputStream stream, String name) throws IOException {
+        return read(ByteBuffer.wrap(stream.readAllBytes()), name);
+    }
+
+    static GameMap read(ByteBuffer in, String name) throws IOException {
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a compiled level: " + name);
+        }
+        int version = in.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported level version " + version + ", recompile " + name);
+        }
+        float startX = in.getFloat();
+        float startY = in.getFloat();
+        if (in.getInt() != in.remaining()) {
+            throw new IOException("Truncated level: " + name);
+        }
+        try {
+            GameMap map = new GameMap(in);
+            map.setStart(startX, startY);
+            return map;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            throw new IOException("Corrupt level: " + name, e);
+        }
+    }
+
+    static void getShorts(ByteBuffer in, short[] values) {
+        in.asShortBuffer().get(values);
+        in.position(in.position() + values.length * 2);
+    }
+}
@@ -0,0 +1,260 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.utils.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class LevelGenerator {
+    // Player start in every generated map: the bottom-left floor tile of room 0, which is always kept clear
+    public static final float SPAWN_X = 36;
+    public static final float SPAWN_Y = 36;
+
+    private static final int ROOM_GAP = 2; // Same gap as between level 1's rooms
+
+    // Tile ids, as used by the level 1 rooms in assets/levels/level1.json
+    private static final int FLOOR = 1;
+    private static final int BLOCK = 2;
+    private static final int WALL_TOP_LEFT = 3;
+    private static final int WALL_TOP = 5;
+    private static final int WALL_TOP_RIGHT = 6;
+    private static final int WALL_LEFT = 8;
+    private static final int BACK_WALL = 9;
+    private static final int WALL_RIGHT = 11;
+    private static final int WALL_BOTTOM_LEFT = 16;
+    private static final int WALL_BOTTOM = 17;
+    private static final int WALL_BOTTOM_RIGHT = 19;
+    private static final int DOOR = 29;
+    private static final int TRAP = 31;
+    private static final int BUTTON = 32;
+    private static final int TELEPORT_OUT = 34;      // To the 66 in room 1
+    private static final int FIRE_EMITTER = 37;
+    private static final int TRAP_BOX = 39;
+    private static final int PUSHABLE_BOX = 42;
+    private static final int SAW_LEFT = 43;
+    private static final int SAW_MIDDLE = 44;
+    private static final int SAW_RIGHT = 45;
+    private static final int TELEPORT_LANDING = 51;  // Where a 69 sends the player
+    private static final int TELEPORT_TO_69 = 52;
+    private static final int DOOR_BUTTON = 56;
+    private static final int TELEPORT_IN = 66;       // Where a 34 sends the player
+    private static final int TELEPORT_RETURN = 67;   // Back to the first 34 in room 0
+    private static final int TELEPORT_TO_51 = 69;
+
+    public static class Settings {
+        public int roomCount = 4;
+        public int minRoomWidth = 8;
+        public int maxRoomWidth = 16;
+        public int minRoomHeight = 6;
+        public int maxRoomHeight = 12;
+        // Fractions of each room's floor tiles
+        public float wallDensity = 0.08f;
+        public float trapDensity = 0.02f;
+        public float buttonDensity = 0.01f;
+        public float doorDensity = 0.02f;
+        public float teleporterDensity = 0.02f;
+        public float sawDensity = 0.01f;
+        // Fraction of each room's back wall that emits fire
+        public float fireDensity = 0.1f;
+    }
+
+    private final Settings settings;
+    private final Random random;
+    private boolean placedTeleportOut;
+    private boolean placedTeleportTo69;
+    private boolean placedTeleportTo51;
+
+    // Same settings and seed always give the same map
+    public static GameMap generate(Settings settings, long seed) {
+        GameMap map = new GameMap(new LevelGenerator(settings, seed).generateRooms());
+        map.setStart(SPAWN_X, SPAWN_Y);
+        return map;
+    }
+
+    private LevelGenerator(Settings settings, long seed) {
+        if (settings.roomCount < 1) {
+            throw new IllegalArgumentException("Need at least one room: " + settings.roomCount);
+        }
+        if (settings.minRoomWidth < 6 || settings.minRoomHeight < 5
+            || settings.maxRoomWidth < settings.minRoomWidth || settings.maxRoomHeight < settings.minRoomHeight) {
+            throw new IllegalArgumentException("Rooms must be at least 6x5 tiles and max sizes must not be below min sizes");
+        }
+        this.settings = settings;
+        this.random = new Random(seed);
+    }
+
+    private Array<GameMap.Room> generateRooms() {
+        // Rooms sit on a grid of equal cells, as square as the room count allows
+        int columns = (int) Math.ceil(Math.sqrt(settings.roomCount));
+        int cellWidth = settings.maxRoomWidth + ROOM_GAP;
+        int cellHeight = settings.maxRoomHeight + ROOM_GAP;
+
+        Array<GameMap.Room> rooms = new Array<>();
+        for (int roomIndex = 0; roomIndex < settings.roomCount; roomIndex++) {
+            int width = between(settings.minRoomWidth, settings.maxRoomWidth);
+            int height = between(settings.minRoomHeight, settings.maxRoomHeight);
+            int[][] mapData = generateRoom(roomIndex, width, height);
+            rooms.add(new GameMap.Room(mapData, (roomIndex % columns) * cellWidth, (roomIndex / columns) * cellHeight));
+        }
+        return rooms;
+    }
+
+    private int[][] generateRoom(int roomIndex, int width, int height) {
+        int[][] tiles = new int[height][width];
+        boolean[][] reserved = new boolean[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                tiles[y][x] = outlineTile(x, y, width, height);
+            }
+        }
+        if (roomIndex == 0) {
+            reserved[height - 2][1] = true; // Spawn tile
+        }
+
+        // Rows 0 and 1 are the top wall and back wall, the last row is the bottom wall
+        List<int[]> floorCells = new ArrayList<>();
+        for (int y = 2; y < height - 1; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                if (!reserved[y][x]) {
+                    floorCells.add(new int[] {x, y});
+                }
+            }
+        }
+        Collections.shuffle(floorCells, random);
+        int floorCount = floorCells.size();
+
+        // Multi-tile features first, while the room is still open
+        int saws = count(settings.sawDensity, floorCount);
+        for (int[] cell : floorCells) {
+            if (saws == 0) {
+                break;
+            }
+            int x = cell[0];
+            int y = cell[1];
+            if (x + 2 < width - 1 && isFree(tiles, reserved, x, y) && isFree(tiles, reserved, x + 1, y) && isFree(tiles, reserved, x + 2, y)) {
+                tiles[y][x] = SAW_LEFT;
+                tiles[y][x + 1] = SAW_MIDDLE;
+                tiles[y][x + 2] = SAW_RIGHT;
+                saws--;
+            }
+        }
+
+        int teleporters = count(settings.teleporterDensity, floorCount);
+        if (roomIndex == 0 && settings.roomCount > 1 && teleporters > 0) {
+            // Returning players land two tiles left of the first 34, so keep that tile clear
+            for (int[] cell : floorCells) {
+                int x = cell[0];
+                int y = cell[1];
+                if (x >= 3 && isFree(tiles, reserved, x, y) && isFree(tiles, reserved, x - 2, y)) {
+                    tiles[y][x] = TELEPORT_OUT;
+                    reserved[y][x - 2] = true;
+                    placedTeleportOut = true;
+                    teleporters--;
+                    break;
+                }
+            }
+        }
+        if (roomIndex == 1 && placedTeleportOut) {
+            // Players arriving through a 34 land two tiles right of the 66
+            for (int[] cell : floorCells) {
+                int x = cell[0];
+                int y = cell[1];
+                if (x + 2 < width - 1 && isFree(tiles, reserved, x, y) && isFree(tiles, reserved, x + 1, y) && isFree(tiles, reserved, x + 2, y)) {
+                    tiles[y][x] = TELEPORT_IN;
+                    reserved[y][x + 1] = true;
+                    reserved[y][x + 2] = true;
+                    break;
+                }
+            }
+            place(tiles, reserved, floorCells, TELEPORT_RETURN, 1);
+        }
+
+        // Single-tile features take whatever floor is left, in shuffled order
+        for (int i = 0; i < teleporters; i++) {
+            // Alternate the two ends of the 52/69 pair
+            int teleporter = i % 2 == 0 ? TELEPORT_TO_69 : TELEPORT_TO_51;
+            if (place(tiles, reserved, floorCells, teleporter, 1) == 1) {
+                placedTeleportTo69 |= teleporter == TELEPORT_TO_69;
+                placedTeleportTo51 |= teleporter == TELEPORT_TO_51;
+            }
+        }
+        int traps = place(tiles, reserved, floorCells, TRAP, count(settings.trapDensity, floorCount));
+        if (traps > 0) {
+            // A trap switches off when a box is pushed onto a button in its room
+            place(tiles, reserved, floorCells, TRAP_BOX, 1);
+            place(tiles, reserved, floorCells, BUTTON, 1);
+            place(tiles, reserved, floorCells, PUSHABLE_BOX, 1);
+        }
+        place(tiles, reserved, floorCells, DOOR, count(settings.doorDensity, floorCount));
+        place(tiles, reserved, floorCells, DOOR_BUTTON, count(settings.buttonDensity, floorCount));
+        place(tiles, reserved, floorCells, BLOCK, count(settings.wallDensity, floorCount));
+
+        // Fire drops down from the back wall
+        List<Integer> backWall = new ArrayList<>();
+        for (int x = 1; x < width - 1; x++) {
+            backWall.add(x);
+        }
+        Collections.shuffle(backWall, random);
+        int fires = Math.min(count(settings.fireDensity, backWall.size()), backWall.size());
+        for (int i = 0; i < fires; i++) {
+            tiles[1][backWall.get(i)] = FIRE_EMITTER;
+        }
+
+        // Make sure every teleporter has somewhere to go
+        if (roomIndex == settings.roomCount - 1) {
+            if (placedTeleportTo69 && !placedTeleportTo51) {
+                placedTeleportTo51 = place(tiles, reserved, floorCells, TELEPORT_TO_51, 1) == 1;
+            }
+            if (placedTeleportTo51) {
+                place(tiles, reserved, floorCells, TELEPORT_LANDING, 1);
+            }
+        }
+        return tiles;
+    }
+
+    private static int outlineTile(int x, int y, int width, int height) {
+        boolean left = x == 0;
+        boolean right = x == width - 1;
+        if (y == 0) {
+            return left ? WALL_TOP_LEFT : right ? WALL_TOP_RIGHT : WALL_TOP;
+        }
+        if (y == height - 1) {
+            return left ? WALL_BOTTOM_LEFT : right ? WALL_BOTTOM_RIGHT : WALL_BOTTOM;
+        }
+        if (left) {
+            return WALL_LEFT;
+        }
+        if (right) {
+            return WALL_RIGHT;
+        }
+        return y == 1 ? BACK_WALL : FLOOR;
+    }
+
+    private static boolean isFree(int[][] tiles, boolean[][] reserved, int x, int y) {
+        return tiles[y][x] == FLOOR && !reserved[y][x];
+    }
+
+    // Puts up to `count` copies of a tile on free floor and returns how many fit
+    private static int place(int[][] tiles, boolean[][] reserved, List<int[]> floorCells, int tileId, int count) {
+        int placed = 0;
+        for (int[] cell : floorCells) {
+            if (placed == count) {
+                break;
+            }
+            if (isFree(tiles, reserved, cell[0], cell[1])) {
+                tiles[cell[1]][cell[0]] = tileId;
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    private static int count(float density, int tiles) {
+        return Math.round(density * tiles);
+    }
+
+    private int between(int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+}
@@ -0,0 +1,275 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.monkeyintrouble.entities.BoxTrap;
+import com.monkeyintrouble.entities.SawTrap;
+import java.nio.ByteBuffer;
+
+public class LevelImage {
+    // A level as loaded, laid out chunk by chunk. The header holds the level's size, rooms,
+    // entity totals and fire emitters, then the offset of each chunk's record, -1 for chunks
+    // no room touches. A record holds the chunk's tiles, rooms, trigger kinds and collision
+    // rows followed by the spawns of the boxes, saws, box traps and teleporter pads on it,
+    // so any one chunk loads with a few bulk copies and nothing needs the whole level in
+    // memory. Compiled levels map the file and use it as it is; LevelBuilder writes these.
+    static final int NO_CHUNK = -1;
+    private static final int ROOM_BYTES = 4 * 4;
+    private static final int FIRE_BYTES = 4 + 4;
+    static final int BOX_BYTES = 4 * 3;
+    static final int SAW_BYTES = 4 + 4;
+    static final int BOX_TRAP_BYTES = BoxTrap.SPAWN_BYTES + 4;
+    static final int LINK_BYTES = 4 * 3 + 4 * 3;
+    static final int TILES_AT = 0;
+    static final int ROOMS_AT = TILES_AT + Chunk.CELLS * 2;
+    static final int KINDS_AT = ROOMS_AT + Chunk.CELLS * 2;
+    static final int SOLID_AT = KINDS_AT + Chunk.CELLS;
+    static final int ENTITIES_AT = SOLID_AT + Chunk.SIZE * 4;
+
+    private final ByteBuffer data;
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final int chunksY;
+    private final long tileHash;
+    private final int roomCount;
+    private final int boxCount;
+    private final int sawCount;
+    private final int boxTrapCount;
+    private final int fireCount;
+    private final int roomsAt;
+    private final int firesAt;
+    private final int offsetsAt;
+
+    // Checks the layout up front, so loading a chunk later cannot fail on a corrupt level
+    LevelImage(ByteBuffer data) {
+        this.data = data.slice();
+        width = this.data.getInt(0);
+        height = this.data.getInt(4);
+        tileHash = this.data.getLong(8);
+        roomCount = this.data.getInt(16);
+        roomsAt = 20;
+        if (width <= 0 || height <= 0 || roomCount < 0 || roomCount > this.data.limit() / ROOM_BYTES) {
+            throw new IllegalArgumentException("Level header is out of range");
+        }
+        int countsAt = roomsAt + roomCount * ROOM_BYTES;
+        boxCount = checkCount(this.data.getInt(countsAt));
+        sawCount = checkCount(this.data.getInt(countsAt + 4));
+        boxTrapCount = checkCount(this.data.getInt(countsAt + 8));
+        fireCount = checkCount(this.data.getInt(countsAt + 12));
+        firesAt = countsAt + 16;
+        if (fireCount > (this.data.limit() - firesAt) / FIRE_BYTES) {
+            throw new IllegalArgumentException("Level has " + fireCount + " fire emitters");
+        }
+        chunksX = (width + Chunk.MASK) >> Chunk.SHIFT;
+        chunksY = (height + Chunk.MASK) >> Chunk.SHIFT;
+        offsetsAt = firesAt + fireCount * FIRE_BYTES;
+        if ((long) chunksX * chunksY * 4 > this.data.limit() - offsetsAt) {
+            throw new IllegalArgumentException("Level is too small for its " + width + "x" + height + " tiles");
+        }
+        for (int room = 0; room < roomCount; room++) {
+            if (getRoomOffsetX(room) < 0 || getRoomOffsetY(room) < 0 || getRoomWidth(room) <= 0 || getRoomHeight(room) <= 0
+                    || getRoomOffsetX(room) + getRoomWidth(room) > width || getRoomOffsetY(room) + getRoomHeight(room) > height) {
+                throw new IllegalArgumentException("Room " + room + " is outside the level");
+            }
+        }
+        int boxes = 0;
+        int saws = 0;
+        int traps = 0;
+        for (int chunk = 0; chunk < getChunkCount(); chunk++) {
+            int offset = this.data.getInt(offsetsAt + chunk * 4);
+            if (offset == NO_CHUNK) {
+                continue;
+            }
+            if (offset < offsetsAt + getChunkCount() * 4 || offset > this.data.limit() - ENTITIES_AT - 4 * 4) {
+                throw new IllegalArgumentException("Chunk " + chunk + " is outside the level");
+            }
+            ByteBuffer in = this.data.duplicate();
+            in.position(offset + ENTITIES_AT);
+            int count = checkCount(in.getInt());
+            boxes += count;
+            for (int i = 0; i < count; i++) {
+                in.position(in.position() + 4 + 4);
+                checkRoom(in.getInt());
+            }
+            count = checkCount(in.getInt());
+            saws += count;
+            in.position(in.position() + count * SAW_BYTES);
+            count = checkCount(in.getInt());
+            traps += count;
+            for (int i = 0; i < count; i++) {
+                in.position(in.position() + BoxTrap.SPAWN_BYTES);
+                checkRoom(in.getInt());
+            }
+            count = checkCount(in.getInt());
+            for (int i = 0; i < count; i++) {
+                int cell = in.getInt();
+                if (cell < 0 || cell >= Chunk.CELLS) {
+                    throw new IllegalArgumentException("Teleporter pad " + cell + " is outside its chunk");
+                }
+                in.position(in.position() + LINK_BYTES - 4);
+            }
+        }
+        if (boxes != boxCount || saws != sawCount || traps != boxTrapCount) {
+            throw new IllegalArgumentException("Level entity totals do not match its chunks");
+        }
+    }
+
+    private static int checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count in level");
+        }
+        return count;
+    }
+
+    private void checkRoom(int room) {
+        if (room < 0 || room >= roomCount) {
+            throw new IllegalArgumentException("Room " + room + " does not exist");
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    int getChunksX() {
+        return chunksX;
+    }
+
+    int getChunksY() {
+        return chunksY;
+    }
+
+    int getChunkCount() {
+        return chunksX * chunksY;
+    }
+
+    // Hash of the size and every cell's tile and room, worked out when the level was built
+    long getTileHash() {
+        return tileHash;
+    }
+
+    int getRoomCount() {
+        return roomCount;
+    }
+
+    int getRoomOffsetX(int room) {
+        return data.getInt(roomsAt + room * ROOM_BYTES);
+    }
+
+    int getRoomOffsetY(int room) {
+        return data.getInt(roomsAt + room * ROOM_BYTES + 4);
+    }
+
+    int getRoomWidth(int room) {
+        return data.getInt(roomsAt + room * ROOM_BYTES + 8);
+    }
+
+    int getRoomHeight(int room) {
+        return data.getInt(roomsAt + room * ROOM_BYTES + 12);
+    }
+
+    // Entities in the whole level
+    int getBoxCount() {
+        return boxCount;
+    }
+
+    int getSawCount() {
+        return sawCount;
+    }
+
+    int getBoxTrapCount() {
+        return boxTrapCount;
+    }
+
+    int getFireCount() {
+        return fireCount;
+    }
+
+    float getFireX(int fire) {
+        return data.getFloat(firesAt + fire * FIRE_BYTES);
+    }
+
+    float getFireY(int fire) {
+        return data.getFloat(firesAt + fire * FIRE_BYTES + 4);
+    }
+
+    private int offsetOf(int col, int row) {
+        return data.getInt(offsetsAt + ((row >> Chunk.SHIFT) * chunksX + (col >> Chunk.SHIFT)) * 4);
+    }
+
+    // The level's tile at a world tile, 0 where no room is
+    int getTile(int col, int row) {
+        int offset = offsetOf(col, row);
+        return offset == NO_CHUNK ? 0 : data.getShort(offset + TILES_AT + Chunk.cellOf(col, row) * 2);
+    }
+
+    int getRoom(int col, int row) {
+        int offset = offsetOf(col, row);
+        return offset == NO_CHUNK ? WorldGrid.NO_ROOM : data.getShort(offset + ROOMS_AT + Chunk.cellOf(col, row) * 2);
+    }
+
+    boolean isSolid(int col, int row) {
+        int offset = offsetOf(col, row);
+        return offset != NO_CHUNK && (data.getInt(offset + SOLID_AT + (row & Chunk.MASK) * 4) & 1 << (col & Chunk.MASK)) != 0;
+    }
+
+    // Fills a fresh chunk with the level's cells and entities
+    void readChunk(Chunk chunk) {
+        int offset = data.getInt(offsetsAt + chunk.index * 4);
+        if (offset == NO_CHUNK) {
+            chunk.fillBlank();
+            return;
+        }
+        ByteBuffer in = data.duplicate();
+        in.position(offset + TILES_AT);
+        LevelFile.getShorts(in, chunk.tiles);
+        LevelFile.getShorts(in, chunk.rooms);
+        in.get(chunk.kinds);
+        in.asIntBuffer().get(chunk.solidRows);
+        in.position(offset + ENTITIES_AT);
+        readBoxes(in, chunk);
+        int sawCount = in.getInt();
+        for (int i = 0; i < sawCount; i++) {
+            chunk.saws.add(new SawTrap(in.getFloat(), in.getFloat()));
+        }
+        int trapCount = in.getInt();
+        for (int i = 0; i < trapCount; i++) {
+            chunk.boxTraps.add(BoxTrap.readSpawn(in));
+            chunk.boxTrapRooms.add(in.getInt());
+        }
+        chunk.links.read(in);
+    }
+
+    // Replaces a chunk's boxes with the ones the level puts there
+    void readBoxes(Chunk chunk) {
+        chunk.boxes.clear();
+        int offset = data.getInt(offsetsAt + chunk.index * 4);
+        if (offset != NO_CHUNK) {
+            ByteBuffer in = data.duplicate();
+            in.position(offset + ENTITIES_AT);
+            readBoxes(in, chunk);
+        }
+    }
+
+    private static void readBoxes(ByteBuffer in, Chunk chunk) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int col = in.getInt();
+            int row = in.getInt();
+            Rectangle bounds = new Rectangle(col * GameMap.TILE_SIZE, row * GameMap.TILE_SIZE, GameMap.TILE_SIZE, GameMap.TILE_SIZE);
+            chunk.boxes.add(new GameMap.Box(bounds, col, row, in.getInt()));
+        }
+    }
+
+    int getBytes() {
+        return data.limit();
+    }
+
+    void write(ByteBuffer out) {
+        out.put(data.duplicate());
+    }
+}
@@ -0,0 +1,82 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.SerializationException;
+import java.io.IOException;
+
+public class LevelSource {
+    // A level as authors write it, in assets/levels/<name>.json:
+    //   {"start": [x, y], "rooms": [{"x": col, "y": row, "tiles": [[...], ...]}, ...]}
+    // start is in world pixels. A room's x and y place its bottom-left tile in the world
+    // grid, and its tiles are listed top row first, as the rooms have always been written.
+    private final float startX;
+    private final float startY;
+    private final Array<int[][]> roomTiles = new Array<>();
+    private final Array<int[]> roomOffsets = new Array<>();
+
+    LevelSource(float startX, float startY) {
+        this.startX = startX;
+        this.startY = startY;
+    }
+
+    // Rows top row first; x and y place the room's bottom-left tile
+    void addRoom(int[][] tiles, int x, int y) {
+        roomTiles.add(tiles);
+        roomOffsets.add(new int[] {x, y});
+    }
+
+    public static LevelSource parse(String json, String name) throws IOException {
+        try {
+            JsonValue root = new JsonReader().parse(json);
+            JsonValue rooms = root.get("rooms");
+            if (rooms == null) {
+                // e.g. an Aseprite export, which has frames but no tile data
+                throw new IOException("No rooms in level " + name);
+            }
+            JsonValue start = root.get("start");
+            LevelSource source = start == null ? new LevelSource(0, 0) : new LevelSource(start.getFloat(0), start.getFloat(1));
+            for (JsonValue room = rooms.child; room != null; room = room.next) {
+                JsonValue tiles = room.get("tiles");
+                if (tiles == null || tiles.size == 0) {
+                    throw new IOException("Room without tiles in level " + name);
+                }
+                int[][] rows = new int[tiles.size][];
+                int y = 0;
+                for (JsonValue row = tiles.child; row != null; row = row.next) {
+                    rows[y++] = row.asIntArray();
+                }
+                source.addRoom(rows, room.getInt("x"), room.getInt("y"));
+            }
+            return source;
+        } catch (SerializationException | IllegalArgumentException e) {
+            throw new IOException("Malformed level " + name, e);
+        }
+    }
+
+    public int getRoomCount() {
+        return roomTiles.size;
+    }
+
+    // A copy of the room's tiles, top row first
+    public int[][] getRoomTiles(int room) {
+        int[][] tiles = roomTiles.get(room);
+        int[][] copy = new int[tiles.length][];
+        for (int y = 0; y < tiles.length; y++) {
+            copy[y] = tiles[y].clone();
+        }
+        return copy;
+    }
+
+    // Builds the map by scanning every room, as LevelCompiler does once per level
+    public GameMap build() {
+        Array<GameMap.Room> rooms = new Array<>(roomTiles.size);
+        for (int i = 0; i < roomTiles.size; i++) {
+            rooms.add(new GameMap.Room(getRoomTiles(i), roomOffsets.get(i)[0], roomOffsets.get(i)[1]));
+        }
+        GameMap map = new GameMap(rooms);
+        map.setStart(startX, startY);
+        return map;
+    }
+}
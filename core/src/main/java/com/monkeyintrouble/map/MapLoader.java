@@ -1,49 +1,121 @@
 package com.monkeyintrouble.map;
 
+import com.badlogic.gdx.utils.Array;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class MapLoader {
-    // Main map area
-    private static final int[][] LEVEL_1_MAIN = {
-        {3,5,5,5,5,5,5,5,5,4,4,4,4,4,6},
-        {8,9,9,9,9,9,37,9,35,9,9,9,9,9,11},
-        {8,14,31,1,14,1,1,32,1,1,1,14,1,1,11},
-        {8,39,31,1,1,1,1,1,13,1,1,1,42,13,11},
-        {8,13,31,14,1,1,1,14,1,1,14,1,14,1,11},
-        {16,17,17,23,72,22,17,17,23,13,1,1,1,36,11},
-        {0,3,20,2,13,24,20,6,8,1,1,13,27,17,19},
-        {0,8,9,7,29,25,9,11,8,43,44,45,11,0,0},
-        {0,8,36,1,14,1,14,11,8,1,13,54,53,0,0},
-        {0,8,13,1,1,13,34,11,8,1,1,51,52,0,0},
-        {0,8,56,14,13,1,1,11,8,36,1,36,11,0,0},
-        {0,16,18,18,18,18,18,19,16,17,74,17,19,0,0,0}
-    };
-
-    // Right top room
-    private static final int[][] LEVEL_1_RIGHT_TOP = {
-        {3, 5, 5, 5, 6},
-        {8, 9, 9, 9, 11},
-        {8, 36, 13, 63,11},
-        {67,66,1,14, 11},
-        {68, 65, 13, 1, 11},
-        {8, 36, 14, 64, 11},
-        {16, 17, 17, 17, 19}
-
-    };
-
-    // Right bottom room
-    private static final int[][] LEVEL_1_RIGHT_BOTTOM = {
-        {3, 5, 5, 5, 6},
-        {8, 9, 37, 9, 11},
-        {8, 13, 1, 36,11},
-        {8, 69, 1, 70, 11},
-        {8, 14, 1, 36, 11},
-        {16, 17, 17, 17, 19}
-    };
+    // Levels are authored as levels/<name>.json and compiled into levels/<name>.level by the
+    // build (see LevelCompiler). Both are looked up on the classpath.
+    public static final String LEVEL_1 = "level1";
+    private static final String LEVEL_DIR = "levels/";
 
     public static GameMap loadLevel1() {
-        return new GameMap(LEVEL_1_MAIN, LEVEL_1_RIGHT_TOP, LEVEL_1_RIGHT_BOTTOM);
+        return loadLevel(LEVEL_1);
+    }
+
+    // Memory-maps the compiled level when it is a plain file, reads it when it is packed in a
+    // jar, and only when the level was never compiled (e.g. running from an IDE) builds it
+    // from its source. Every call returns a fresh map.
+    public static GameMap loadLevel(String name) {
+        try {
+            URL compiled = resource(name + LevelFile.EXTENSION);
+            if (compiled != null && "file".equals(compiled.getProtocol())) {
+                return LevelFile.load(Paths.get(compiled.toURI()));
+            }
+            if (compiled != null) {
+                try (InputStream in = compiled.openStream()) {
+                    return LevelFile.load(in, compiled.toString());
+                }
+            }
+            return loadSource(name).build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // A level outside the classpath, for trying out levels in progress: a compiled .level, a
+    // .json source, a single-room .tmx, or a directory of Tiled rooms (see TmxLevel)
+    public static GameMap loadLevel(Path file) {
+        try {
+            String fileName = file.getFileName().toString();
+            if (Files.isDirectory(file)) {
+                return loadTmxLevel(fileName, TmxLevel.roomFiles(file));
+            }
+            if (fileName.endsWith(TmxLevel.EXTENSION)) {
+                Array<Path> room = new Array<>();
+                room.add(file);
+                return loadTmxLevel(fileName.substring(0, fileName.length() - TmxLevel.EXTENSION.length()), room);
+            }
+            if (fileName.endsWith(LevelFile.EXTENSION)) {
+                return LevelFile.load(file);
+            }
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            return LevelSource.parse(json, file.toString()).build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A level as -Dmonkey.level and recordings name it: the level file or directory at that
+    // path if there is one, otherwise the level of that name on the classpath
+    public static GameMap loadNamedLevel(String name) {
+        Path file = Paths.get(name);
+        return Files.exists(file) ? loadLevel(file) : loadLevel(name);
+    }
+
+    // Parsing and stitching Tiled rooms is slow, so the result is cached until a room changes
+    private static GameMap loadTmxLevel(String name, Array<Path> roomFiles) throws IOException {
+        return new LevelCache().load(name, TmxLevel.sourceFiles(roomFiles), () -> TmxLevel.stitch(roomFiles).build());
+    }
+
+    public static LevelSource loadSource(String name) throws IOException {
+        URL source = resource(name + ".json");
+        if (source == null) {
+            throw new IOException("Level not found: " + LEVEL_DIR + name);
+        }
+        try (InputStream in = source.openStream()) {
+            return LevelSource.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), source.toString());
+        }
     }
 
+    private static URL resource(String fileName) {
+        return MapLoader.class.getClassLoader().getResource(LEVEL_DIR + fileName);
+    }
+
+    // Seeded stress level: rooms, walls, traps, buttons, doors, teleporters, fires and saws
+    // laid out according to the settings. The player starts at LevelGenerator.SPAWN_X/SPAWN_Y.
+    public static GameMap generateLevel(LevelGenerator.Settings settings, long seed) {
+        return LevelGenerator.generate(settings, seed);
+    }
+
+    // Level 1's rooms as written in its source, for tools that build maps from raw rooms
     public static int[][] getLevelData() {
-        return LEVEL_1_MAIN;
+        return level1Room(0);
+    }
+
+    public static int[][] getRightTopRoomData() {
+        return level1Room(1);
+    }
+
+    public static int[][] getRightBottomRoomData() {
+        return level1Room(2);
+    }
+
+    private static int[][] level1Room(int room) {
+        try {
+            return loadSource(LEVEL_1).getRoomTiles(room);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import java.nio.ByteBuffer;
+
+public class PressurePlates {
+    public interface Listener {
+        // Called when a plate goes from empty to occupied
+        void onPlatePressed(int plate, int roomIndex);
+    }
+
+    // Plates are the button tiles (32) of the grid, which never change, and a plate's id is
+    // its world cell. Only plates with a box on them are counted, so the cost follows the
+    // boxes, not the level.
+    private final WorldGrid grid;
+    private final int tileSize;
+    private final IntIntMap occupancy = new IntIntMap();
+    private final IntArray sortedCells = new IntArray();
+    private final Listener listener;
+
+    public PressurePlates(WorldGrid grid, int tileSize, Listener listener) {
+        this.grid = grid;
+        this.tileSize = tileSize;
+        this.listener = listener;
+    }
+
+    public boolean isPlate(int col, int row) {
+        return grid.getTile(col, row) == TileType.BUTTON_ID;
+    }
+
+    public boolean isPressed(int plate) {
+        return occupancy.get(plate, 0) > 0;
+    }
+
+    // A box appeared at the given bounds
+    public void add(Rectangle bounds) {
+        change(bounds.x, bounds.y, bounds.width, bounds.height, 1);
+    }
+
+    // A box moved from (oldX, oldY) to its current bounds
+    public void move(float oldX, float oldY, Rectangle bounds) {
+        if (sameCells(oldX, bounds.x, bounds.width) && sameCells(oldY, bounds.y, bounds.height)) {
+            return;
+        }
+        // Add before removing so a plate covered by both positions never reads as released
+        change(bounds.x, bounds.y, bounds.width, bounds.height, 1);
+        change(oldX, oldY, bounds.width, bounds.height, -1);
+    }
+
+    // Forgets every box, e.g. before they are all registered again
+    public void clearOccupancy() {
+        occupancy.clear();
+    }
+
+    // Boxes on each occupied plate, in cell order
+    int savedBytes() {
+        return 4 + occupancy.size * (4 + 4);
+    }
+
+    void save(ByteBuffer out) {
+        sortedCells.clear();
+        for (IntIntMap.Entry entry : occupancy) {
+            sortedCells.add(entry.key);
+        }
+        sortedCells.sort();
+        out.putInt(sortedCells.size);
+        for (int i = 0; i < sortedCells.size; i++) {
+            out.putInt(sortedCells.get(i));
+            out.putInt(occupancy.get(sortedCells.get(i), 0));
+        }
+    }
+
+    // Takes the counts as saved, without pressing anything: the save already has the
+    // tiles and traps the presses changed
+    void restore(ByteBuffer in) {
+        occupancy.clear();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            occupancy.put(in.getInt(), in.getInt());
+        }
+    }
+
+    void check(ByteBuffer in, int maxBoxes) {
+        int count = in.getInt();
+        if (count < 0 || count > maxBoxes) {
+            throw new IllegalArgumentException("Saved plate count " + count + " is out of range");
+        }
+        for (int i = 0; i < count; i++) {
+            int cell = in.getInt();
+            int boxes = in.getInt();
+            if (cell < 0 || cell >= grid.getWidth() * grid.getHeight() || grid.getSnapshotTile(cell) != TileType.BUTTON_ID
+                    || boxes < 1 || boxes > maxBoxes) {
+                throw new IllegalArgumentException("Saved plate " + cell + " is not a plate the level has");
+            }
+        }
+    }
+
+    private boolean sameCells(float oldPos, float newPos, float size) {
+        return CollisionGrid.firstCell(oldPos, tileSize) == CollisionGrid.firstCell(newPos, tileSize)
+            && CollisionGrid.lastCell(oldPos, size, tileSize) == CollisionGrid.lastCell(newPos, size, tileSize);
+    }
+
+    private void change(float x, float y, float w, float h, int delta) {
+        int minCol = Math.max(CollisionGrid.firstCell(x, tileSize), 0);
+        int maxCol = Math.min(CollisionGrid.lastCell(x, w, tileSize), grid.getWidth() - 1);
+        int minRow = Math.max(CollisionGrid.firstCell(y, tileSize), 0);
+        int maxRow = Math.min(CollisionGrid.lastCell(y, h, tileSize), grid.getHeight() - 1);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (!isPlate(col, row)) {
+                    continue;
+                }
+                int plate = grid.cell(col, row);
+                int count = occupancy.get(plate, 0) + delta;
+                if (count > 0) {
+                    occupancy.put(plate, count);
+                } else {
+                    occupancy.remove(plate, 0);
+                }
+                if (delta > 0 && count == 1) {
+                    listener.onPlatePressed(plate, grid.getRoom(col, row));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import java.nio.ByteBuffer;
+
+public class TeleporterLinks {
+    // Pad cell -> link id. A link sends the player to a target tile plus an offset in
+    // pixels and blocks further teleports for its cooldown. Pads are in the coordinates of
+    // whatever grid width the links were made for, such as one chunk's.
+    private final int width;
+    private final IntIntMap linkAt = new IntIntMap();
+    private final IntArray padCells = new IntArray();
+    private final IntArray targetCols = new IntArray();
+    private final IntArray targetRows = new IntArray();
+    private final FloatArray offsetXs = new FloatArray();
+    private final FloatArray offsetYs = new FloatArray();
+    private final FloatArray cooldowns = new FloatArray();
+
+    public TeleporterLinks(int width) {
+        this.width = width;
+    }
+
+    // Links the pad at (col, row) and returns the link id; linking a pad again replaces its link
+    public int link(int col, int row, int targetCol, int targetRow, float offsetX, float offsetY, float cooldown) {
+        int link = targetCols.size;
+        padCells.add(row * width + col);
+        targetCols.add(targetCol);
+        targetRows.add(targetRow);
+        offsetXs.add(offsetX);
+        offsetYs.add(offsetY);
+        cooldowns.add(cooldown);
+        linkAt.put(row * width + col, link);
+        return link;
+    }
+
+    // Link id of the pad at (col, row), or -1 if it leads nowhere
+    public int find(int col, int row) {
+        return linkAt.get(row * width + col, -1);
+    }
+
+    public int size() {
+        return linkAt.size;
+    }
+
+    public int getTargetCol(int link) {
+        return targetCols.get(link);
+    }
+
+    public int getTargetRow(int link) {
+        return targetRows.get(link);
+    }
+
+    public float getOffsetX(int link) {
+        return offsetXs.get(link);
+    }
+
+    public float getOffsetY(int link) {
+        return offsetYs.get(link);
+    }
+
+    public float getCooldown(int link) {
+        return cooldowns.get(link);
+    }
+
+    public void clear() {
+        linkAt.clear();
+        padCells.clear();
+        targetCols.clear();
+        targetRows.clear();
+        offsetXs.clear();
+        offsetYs.clear();
+        cooldowns.clear();
+    }
+
+    // Every link in id order, for compiled levels
+    int compiledBytes() {
+        return 4 + padCells.size * (4 * 4 + 4 + 4);
+    }
+
+    void write(ByteBuffer out) {
+        out.putInt(padCells.size);
+        for (int link = 0; link < padCells.size; link++) {
+            out.putInt(padCells.get(link));
+            out.putInt(targetCols.get(link));
+            out.putInt(targetRows.get(link));
+            out.putFloat(offsetXs.get(link));
+            out.putFloat(offsetYs.get(link));
+            out.putFloat(cooldowns.get(link));
+        }
+    }
+
+    void read(ByteBuffer in) {
+        int links = in.getInt();
+        for (int i = 0; i < links; i++) {
+            int cell = in.getInt();
+            link(cell % width, cell / width, in.getInt(), in.getInt(), in.getFloat(), in.getFloat(), in.getFloat());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.monkeyintrouble.map;
 
+import java.util.Arrays;
+
 public enum TileType {
     EMPTY(0),
     FLOOR(1),
@@ -46,6 +48,46 @@ public enum TileType {
     WALL_TORCH(70),
     BLOCK(2);
 
+    // Tile ids run from 0 to ID_COUNT - 1; every per-id table has this size
+    public static final int ID_COUNT = 75;
+
+    // Property bits, baked per tile id
+    public static final int COLLIDABLE = 1;      // Solid when the map loads
+    public static final int PUSHABLE = 1 << 1;
+    public static final int HAZARD = 1 << 2;     // Hurts the monkey or spawns something that does
+    public static final int TRIGGER = 1 << 3;    // Does something when the monkey steps on it (see TriggerIndex)
+    public static final int TELEPORTER = 1 << 4;
+    public static final int ANIMATED = 1 << 5;   // Drawn as a moving entity instead of a static tile
+    public static final int OPENABLE = 1 << 6;   // A door: opens for good when a door button is pressed
+
+    // Tiles the game rules refer to by id
+    public static final int FLOOR_ID = 1;
+    public static final int OPEN_TRAP_ID = 30;      // A trap after a box pressed its room's button
+    public static final int BUTTON_ID = 32;         // Pressed by boxes, see PressurePlates
+    public static final int TRAP_BOX_ID = 39;       // Turns into a banana box along with the room's traps
+    public static final int BANANA_BOX_ID = 41;
+    public static final int VICTORY_ID = 50;
+    public static final int PRESSED_DOOR_BUTTON_ID = 57;
+    public static final int EXIT_WALL_ID = 74;      // Turns into the victory tile when the lever is pulled
+
+    private static final TileType[] BY_ID = new TileType[ID_COUNT];
+    private static final byte[] FLAGS = new byte[ID_COUNT];
+
+    static {
+        Arrays.fill(BY_ID, EMPTY);
+        for (TileType type : values()) {
+            BY_ID[type.tileId] = type;
+        }
+        // Buttons (32) and the 69 teleporter look like walls but can be walked on
+        setFlag(COLLIDABLE, 2, 3, 4, 5, 6, 7, 8, 11, 16, 17, 18, 19, 20, 22, 23, 24, 25, 27, 29, 31, 43, 50, 64);
+        setFlag(PUSHABLE, 42);
+        setFlag(HAZARD, 31, 35, 37, 43, 72);
+        setFlag(TRIGGER, 34, 41, 50, 52, 56, 63, 67, 68, 69, 70, 72);
+        setFlag(TELEPORTER, 34, 52, 67, 68, 69);
+        setFlag(ANIMATED, 42, 43, 44, 45);
+        setFlag(OPENABLE, 29);
+    }
+
     private final int tileId;
 
     TileType(int tileId) {
@@ -57,26 +99,54 @@ public enum TileType {
     }
 
     public static TileType fromId(int id) {
-        for (TileType type : values()) {
-            if (type.tileId == id) {
-                return type;
-            }
+        if (id < 0 || id >= ID_COUNT) {
+            return EMPTY;
+        }
+        return BY_ID[id];
+    }
+
+    // Property bits of a tile id, 0 for ids outside the table
+    public static int flagsOf(int id) {
+        if (id < 0 || id >= ID_COUNT) {
+            return 0;
         }
-        return EMPTY;
+        return FLAGS[id];
+    }
+
+    public static boolean hasFlag(int id, int flag) {
+        return (flagsOf(id) & flag) != 0;
+    }
+
+    // Left end of a saw track; the saw runs over it and the two tiles after it
+    public static boolean isSawTrap(int id) {
+        return (flagsOf(id) & (HAZARD | ANIMATED)) == (HAZARD | ANIMATED);
+    }
+
+    // Fire falls from these; the tile itself can be walked over
+    public static boolean isFireEmitter(int id) {
+        return (flagsOf(id) & (HAZARD | COLLIDABLE | TRIGGER)) == HAZARD;
+    }
+
+    // Solid trap that opens when a box presses the button in its room
+    public static boolean isTrap(int id) {
+        return (flagsOf(id) & (HAZARD | COLLIDABLE | ANIMATED)) == (HAZARD | COLLIDABLE);
+    }
+
+    public static boolean isDoor(int id) {
+        return hasFlag(id, OPENABLE);
     }
 
     public boolean isCollidable() {
-        return this == WALL_STONE || this == WALL_TOP || this == WALL_SIDE ||
-            this == WALL_CORNER || this == WALL_LEFT || this == WALL_RIGHT ||
-            this == WALL_BOTTOM_LEFT || this == WALL_BOTTOM || this == WALL_18 ||
-            this == WALL_BOTTOM_RIGHT || this == WALL_CORNER_SPECIAL || this == WALL_TRANSITION ||
-            this == WALL_SPECIAL || this == WALL_DAMAGED || this == WALL_PILLAR ||
-            this == WALL_WINDOW || this == SPIKES || this == WALL_SPECIAL_2 ||
-            this == WALL_DARK || this == WALL_CHAINS || this == BARS || this == WALL_22 ||
-            this == TRAP || this == WALL_INNER_CORNER || this == BLOCK;
+        return (FLAGS[tileId] & COLLIDABLE) != 0;
     }
 
     public boolean isPushable() {
-        return this == CHEST_SPECIAL;
+        return (FLAGS[tileId] & PUSHABLE) != 0;
+    }
+
+    private static void setFlag(int flag, int... ids) {
+        for (int id : ids) {
+            FLAGS[id] |= flag;
+        }
     }
 }
@@ -0,0 +1,231 @@
+package com.monkeyintrouble.map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Base64Coder;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class TmxLevel {
+    // Levels drawn in Tiled, one .tmx per room. A room directory holds main_room.tmx and
+    // right_top.tmx, right_mid.tmx and right_bottom.tmx; the main room sits at the origin and
+    // the others are stacked bottom to top in a column to its right, 2 tiles apart, as the
+    // old Tiled loader laid them out. A directory may leave out any of the right rooms.
+    // Only the first tile layer of each room is read. Tiles come from image-collection
+    // tilesets of the numbered tile images, so a tile showing 12.png is tile 12; in any other
+    // tileset a tile's id is its index in the set. The main room may give the player's start
+    // in pixels as the map properties startX and startY.
+    public static final String MAIN_ROOM = "main_room.tmx";
+    public static final String[] RIGHT_ROOMS = {"right_top.tmx", "right_mid.tmx", "right_bottom.tmx"};
+    public static final String EXTENSION = ".tmx";
+    private static final int ROOM_GAP = 2;
+
+    // Tiled keeps flip and rotation flags in the top bits of each tile
+    private static final int GID_MASK = 0x0fffffff;
+    private static final Pattern TILESET_SOURCE = Pattern.compile("<tileset\\b[^>]*\\ssource=\"([^\"]+)\"");
+
+    private TmxLevel() {
+    }
+
+    // The room files of a level, main room first
+    public static Array<Path> roomFiles(Path directory) throws IOException {
+        Array<Path> files = new Array<>();
+        Path main = directory.resolve(MAIN_ROOM);
+        if (!Files.isRegularFile(main)) {
+            throw new IOException("No " + MAIN_ROOM + " in " + directory);
+        }
+        files.add(main);
+        for (String name : RIGHT_ROOMS) {
+            Path room = directory.resolve(name);
+            if (Files.isRegularFile(room)) {
+                files.add(room);
+            }
+        }
+        return files;
+    }
+
+    // Every file the stitched level depends on: the rooms and the external tilesets they
+    // use. Found with a text search, so checking for changes never parses any XML.
+    public static Array<Path> sourceFiles(Array<Path> roomFiles) throws IOException {
+        Array<Path> files = new Array<>(roomFiles);
+        for (Path room : roomFiles) {
+            Matcher matcher = TILESET_SOURCE.matcher(new String(Files.readAllBytes(room), StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                Path tileset = room.resolveSibling(matcher.group(1)).normalize();
+                if (!files.contains(tileset, false)) {
+                    files.add(tileset);
+                }
+            }
+        }
+        return files;
+    }
+
+    // Parses every room and lays them out as described above
+    public static LevelSource stitch(Array<Path> roomFiles) throws IOException {
+        LevelSource source = null;
+        int rightX = 0;
+        int y = 0;
+        for (int i = 0; i < roomFiles.size; i++) {
+            Path file = roomFiles.get(i);
+            try {
+                Element map = parse(file);
+                int[][] tiles = readTiles(map, file);
+                if (source == null) {
+                    source = new LevelSource(property(map, "startX"), property(map, "startY"));
+                    source.addRoom(tiles, 0, 0);
+                    rightX = tiles[0].length + ROOM_GAP;
+                } else {
+                    source.addRoom(tiles, rightX, y);
+                    y += tiles.length + ROOM_GAP;
+                }
+            } catch (GdxRuntimeException | IllegalArgumentException e) {
+                throw new IOException("Malformed TMX " + file, e);
+            }
+        }
+        return source;
+    }
+
+    private static Element parse(Path file) throws IOException {
+        return new XmlReader().parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    private static float property(Element map, String name) {
+        Element properties = map.getChildByName("properties");
+        if (properties != null) {
+            for (Element property : properties.getChildrenByName("property")) {
+                if (name.equals(property.getAttribute("name", null))) {
+                    return property.getFloatAttribute("value", 0);
+                }
+            }
+        }
+        return 0;
+    }
+
+    // The first tile layer as tile ids, top row first
+    private static int[][] readTiles(Element map, Path file) throws IOException {
+        Element layer = map.getChildByName("layer");
+        if (layer == null) {
+            throw new IOException("No tile layer in " + file);
+        }
+        int width = layer.getIntAttribute("width");
+        int height = layer.getIntAttribute("height");
+        int[] gids = readGids(layer.getChildByName("data"), width * height, file);
+        IntIntMap tileIds = tileIds(map, file);
+
+        int[][] tiles = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int gid = gids[y * width + x] & GID_MASK;
+                tiles[y][x] = gid == 0 ? 0 : tileIds.get(gid, -1);
+                if (tiles[y][x] < 0) {
+                    throw new IOException("Tile " + gid + " at " + x + "," + y + " is in no tileset of " + file);
+                }
+            }
+        }
+        return tiles;
+    }
+
+    // Global tile ids in layer order: csv, or base64 with optional zlib or gzip compression
+    private static int[] readGids(Element data, int count, Path file) throws IOException {
+        if (data == null) {
+            throw new IOException("No tile data in " + file);
+        }
+        if (data.getChildByName("chunk") != null) {
+            throw new IOException("Infinite maps are not supported: " + file);
+        }
+        String encoding = data.getAttribute("encoding", "xml");
+        int[] gids = new int[count];
+        if ("csv".equals(encoding)) {
+            String[] values = data.getText().trim().split("\\s*,\\s*");
+            if (values.length != count) {
+                throw new IOException("Expected " + count + " tiles, found " + values.length + " in " + file);
+            }
+            for (int i = 0; i < count; i++) {
+                gids[i] = (int) Long.parseLong(values[i]);
+            }
+        } else if ("base64".equals(encoding)) {
+            byte[] bytes = Base64Coder.decode(data.getText().trim());
+            String compression = data.getAttribute("compression", "");
+            if ("zlib".equals(compression)) {
+                bytes = inflate(new InflaterInputStream(new ByteArrayInputStream(bytes)));
+            } else if ("gzip".equals(compression)) {
+                bytes = inflate(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+            } else if (!compression.isEmpty()) {
+                throw new IOException("Unsupported compression " + compression + " in " + file);
+            }
+            if (bytes.length != count * 4) {
+                throw new IOException("Expected " + count + " tiles, found " + bytes.length / 4 + " in " + file);
+            }
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(gids);
+        } else {
+            Array<Element> tiles = data.getChildrenByName("tile");
+            if (tiles.size != count) {
+                throw new IOException("Expected " + count + " tiles, found " + tiles.size + " in " + file);
+            }
+            for (int i = 0; i < count; i++) {
+                gids[i] = (int) Long.parseLong(tiles.get(i).getAttribute("gid", "0"));
+            }
+        }
+        return gids;
+    }
+
+    private static byte[] inflate(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            stream.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+
+    // Global tile id to game tile id, over every tileset the map uses
+    private static IntIntMap tileIds(Element map, Path file) throws IOException {
+        IntIntMap tileIds = new IntIntMap();
+        for (Element tileset : map.getChildrenByName("tileset")) {
+            int firstGid = tileset.getIntAttribute("firstgid", 1);
+            String source = tileset.getAttribute("source", null);
+            if (source != null) {
+                tileset = parse(file.resolveSibling(source));
+            }
+            int tileCount = tileset.getIntAttribute("tilecount", 0);
+            for (int i = 0; i < tileCount; i++) {
+                tileIds.put(firstGid + i, i);
+            }
+            for (Element tile : tileset.getChildrenByName("tile")) {
+                int id = tile.getIntAttribute("id");
+                Element image = tile.getChildByName("image");
+                int number = image == null ? -1 : imageNumber(image.getAttribute("source", ""));
+                tileIds.put(firstGid + id, number >= 0 ? number : id);
+            }
+        }
+        return tileIds;
+    }
+
+    // 12 for ".../12.png", -1 if the image is not one of the numbered tiles
+    private static int imageNumber(String path) {
+        int start = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1;
+        int end = path.lastIndexOf('.');
+        if (end <= start) {
+            return -1;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(path.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(path.substring(start, end));
+    }
+}
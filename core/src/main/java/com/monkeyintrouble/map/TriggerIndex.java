@@ -0,0 +1,64 @@
+package com.monkeyintrouble.map;
+
+public class TriggerIndex {
+    // Trigger kinds, one per world tile, kept in the chunks of a ChunkStore next to the tiles.
+    // WorldGrid.setTile keeps them in sync.
+    public static final byte NONE = 0;
+    public static final byte BANANA_BOX = 1;        // 41: drops a banana and becomes 40
+    public static final byte VICTORY = 2;           // 50
+    public static final byte DOOR_BUTTON = 3;       // 56: opens all doors
+    public static final byte GHOST = 4;             // 72
+    public static final byte GHOST_POTION = 5;      // 63: turns the monkey into a ghost
+    public static final byte TELEPORTER = 6;        // 34, 52, 67, 68, 69: destination from TeleporterLinks
+    public static final byte LEVER = 7;             // 70: turns 74 into 50
+
+    private final ChunkStore chunks;
+    private final int width;
+    private final int height;
+
+    TriggerIndex(ChunkStore chunks) {
+        this.chunks = chunks;
+        this.width = chunks.getWidth();
+        this.height = chunks.getHeight();
+    }
+
+    private static final byte[] KIND_BY_TILE = new byte[TileType.ID_COUNT];
+
+    // TileType decides which tiles are triggers; this only tells them apart
+    static {
+        for (int tileId = 0; tileId < TileType.ID_COUNT; tileId++) {
+            if (TileType.hasFlag(tileId, TileType.TRIGGER)) {
+                KIND_BY_TILE[tileId] = triggerKind(tileId);
+            }
+        }
+    }
+
+    private static byte triggerKind(int tileId) {
+        if (TileType.hasFlag(tileId, TileType.TELEPORTER)) {
+            return TELEPORTER;
+        }
+        switch (tileId) {
+            case 41: return BANANA_BOX;
+            case 50: return VICTORY;
+            case 56: return DOOR_BUTTON;
+            case 63: return GHOST_POTION;
+            case 70: return LEVER;
+            case 72: return GHOST;
+            default: throw new IllegalStateException("Trigger tile " + tileId + " has no trigger kind");
+        }
+    }
+
+    public static byte kindOf(int tileId) {
+        if (tileId < 0 || tileId >= TileType.ID_COUNT) {
+            return NONE;
+        }
+        return KIND_BY_TILE[tileId];
+    }
+
+    public byte getKind(int col, int row) {
+        if (col < 0 || col >= width || row < 0 || row >= height) {
+            return NONE;
+        }
+        return chunks.get(col, row).kinds[Chunk.cellOf(col, row)];
+    }
+}
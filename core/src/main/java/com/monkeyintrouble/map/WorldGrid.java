@@ -0,0 +1,96 @@
+package com.monkeyintrouble.map;
+
+public class WorldGrid {
+    // Every tile of the world, rows bottom-up like the world itself, so cell = row * width + col.
+    // Each cell also records which room it belongs to. The tiles live in the chunks of a
+    // ChunkStore, which loads them on first use; every changed cell is journaled in its
+    // chunk, so it can be put back without looking at the rest of the world.
+    public static final int NO_ROOM = -1;
+
+    private final ChunkStore chunks;
+    private final int width;
+    private final int height;
+
+    WorldGrid(ChunkStore chunks) {
+        this.chunks = chunks;
+        this.width = chunks.getWidth();
+        this.height = chunks.getHeight();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean contains(int col, int row) {
+        return col >= 0 && col < width && row >= 0 && row < height;
+    }
+
+    public int cell(int col, int row) {
+        return row * width + col;
+    }
+
+    public int colOf(int cell) {
+        return cell % width;
+    }
+
+    public int rowOf(int cell) {
+        return cell / width;
+    }
+
+    // Tile id at a cell, or -1 if no room covers it
+    public int getTile(int cell) {
+        return getTile(colOf(cell), rowOf(cell));
+    }
+
+    public int getTile(int col, int row) {
+        if (!contains(col, row)) {
+            return -1;
+        }
+        Chunk chunk = chunks.get(col, row);
+        int local = Chunk.cellOf(col, row);
+        return chunk.rooms[local] == NO_ROOM ? -1 : chunk.tiles[local];
+    }
+
+    // Also keeps the chunk's trigger kinds in sync
+    public void setTile(int cell, int tileId) {
+        int col = colOf(cell);
+        int row = rowOf(cell);
+        Chunk chunk = chunks.get(col, row);
+        int local = Chunk.cellOf(col, row);
+        chunk.setTile(local, tileId);
+        chunk.markChanged(local);
+    }
+
+    // Tile id a cell had when the level was loaded
+    public int getSnapshotTile(int cell) {
+        return chunks.getImage().getTile(colOf(cell), rowOf(cell));
+    }
+
+    // Journals a cell; also for state kept outside the tiles, such as collision
+    public void markChanged(int cell) {
+        int col = colOf(cell);
+        int row = rowOf(cell);
+        chunks.get(col, row).markChanged(Chunk.cellOf(col, row));
+    }
+
+    // Cells changed since the level was loaded or last reset, resident or not
+    public int getChangedCount() {
+        return chunks.getChangedCount();
+    }
+
+    // Index of the room a cell belongs to, or NO_ROOM
+    public int getRoom(int cell) {
+        return getRoom(colOf(cell), rowOf(cell));
+    }
+
+    public int getRoom(int col, int row) {
+        if (!contains(col, row)) {
+            return NO_ROOM;
+        }
+        return chunks.get(col, row).rooms[Chunk.cellOf(col, row)];
+    }
+}
@@ -0,0 +1,162 @@
+package com.monkeyintrouble.render;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.monkeyintrouble.map.GameMap;
+import java.util.Arrays;
+
+public class StaticTileLayer implements Disposable {
+    // Base tiles are recorded once into SpriteCaches, one cache per 16x16 chunk, and only
+    // chunks whose tiles changed are re-recorded. Nothing is re-submitted per frame, and only
+    // chunks overlapping the view are drawn. A chunk is first recorded when it first comes
+    // into view, so the map never has to load tiles nobody looks at.
+    private static final int CHUNK_SIZE = 16;
+    private static final int CHUNKS_PER_PAGE = 31; // 31 * 256 sprites stays under SpriteCache's 8191 limit
+    private static final int NOT_BUILT = -1;
+
+    private final GameMap map;
+    private final TileAtlas tileAtlas;
+    private final TextureRegion placeholder;
+    private final int tileSize;
+    private final int chunksX;
+    private final int chunksY;
+    private final int[] chunkCaches;
+    private final boolean[] dirty;
+    private final IntArray dirtyChunks = new IntArray();
+    private final Array<SpriteCache> pages = new Array<>();
+
+    public StaticTileLayer(GameMap map, TileAtlas tileAtlas, int worldWidth, int worldHeight, int tileSize) {
+        this.map = map;
+        this.tileAtlas = tileAtlas;
+        this.tileSize = tileSize;
+        this.chunksX = (worldWidth + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunksY = (worldHeight + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunkCaches = new int[chunksX * chunksY];
+        Arrays.fill(chunkCaches, NOT_BUILT);
+        this.dirty = new boolean[chunksX * chunksY];
+
+        TextureRegion anyRegion = null;
+        for (int tileId = 0; tileId < TileAtlas.TILE_COUNT && anyRegion == null; tileId++) {
+            anyRegion = tileAtlas.get(tileId);
+        }
+        this.placeholder = anyRegion;
+
+        // Pages too are made when the first of their chunks is
+        pages.setSize((chunkCaches.length + CHUNKS_PER_PAGE - 1) / CHUNKS_PER_PAGE);
+    }
+
+    public void markDirty(int col, int row) {
+        if (col < 0 || row < 0 || col >= chunksX * CHUNK_SIZE || row >= chunksY * CHUNK_SIZE) {
+            return;
+        }
+        int chunk = (row / CHUNK_SIZE) * chunksX + col / CHUNK_SIZE;
+        if (chunkCaches[chunk] != NOT_BUILT && !dirty[chunk]) {
+            dirty[chunk] = true;
+            dirtyChunks.add(chunk);
+        }
+    }
+
+    // view is the world area to draw, in pixels
+    public void render(Camera camera, Rectangle view) {
+        rebuildDirtyChunks();
+        int chunkPixels = CHUNK_SIZE * tileSize;
+        int minX = Math.max((int) Math.floor(view.x / chunkPixels), 0);
+        int maxX = Math.min((int) Math.floor((view.x + view.width) / chunkPixels), chunksX - 1);
+        int minY = Math.max((int) Math.floor(view.y / chunkPixels), 0);
+        int maxY = Math.min((int) Math.floor((view.y + view.height) / chunkPixels), chunksY - 1);
+        buildVisibleChunks(minX, minY, maxX, maxY);
+
+        // Visible chunks come in increasing index order, so each page is begun at most once
+        SpriteCache current = null;
+        for (int chunkY = minY; chunkY <= maxY; chunkY++) {
+            for (int chunkX = minX; chunkX <= maxX; chunkX++) {
+                int chunk = chunkY * chunksX + chunkX;
+                SpriteCache cache = pages.get(chunk / CHUNKS_PER_PAGE);
+                if (cache != current) {
+                    if (current != null) {
+                        current.end();
+                    }
+                    cache.setProjectionMatrix(camera.combined);
+                    cache.begin();
+                    current = cache;
+                }
+                cache.draw(chunkCaches[chunk]);
+            }
+        }
+        if (current != null) {
+            current.end();
+        }
+    }
+
+    // Records the chunks coming into view for the first time; a cache cannot be recorded
+    // while any page is drawing
+    private void buildVisibleChunks(int minX, int minY, int maxX, int maxY) {
+        for (int chunkY = minY; chunkY <= maxY; chunkY++) {
+            for (int chunkX = minX; chunkX <= maxX; chunkX++) {
+                int chunk = chunkY * chunksX + chunkX;
+                if (chunkCaches[chunk] != NOT_BUILT) {
+                    continue;
+                }
+                SpriteCache cache = pages.get(chunk / CHUNKS_PER_PAGE);
+                if (cache == null) {
+                    cache = new SpriteCache(CHUNKS_PER_PAGE * CHUNK_SIZE * CHUNK_SIZE, true);
+                    pages.set(chunk / CHUNKS_PER_PAGE, cache);
+                }
+                cache.beginCache();
+                addChunk(cache, chunk);
+                chunkCaches[chunk] = cache.endCache();
+            }
+        }
+    }
+
+    private void rebuildDirtyChunks() {
+        for (int i = 0; i < dirtyChunks.size; i++) {
+            int chunk = dirtyChunks.get(i);
+            SpriteCache cache = pages.get(chunk / CHUNKS_PER_PAGE);
+            // Redefining keeps the cache's slot; the sprite count per chunk never changes
+            cache.beginCache(chunkCaches[chunk]);
+            addChunk(cache, chunk);
+            cache.endCache();
+            dirty[chunk] = false;
+        }
+        dirtyChunks.clear();
+    }
+
+    private void addChunk(SpriteCache cache, int chunk) {
+        int startCol = (chunk % chunksX) * CHUNK_SIZE;
+        int startRow = (chunk / chunksX) * CHUNK_SIZE;
+        for (int row = startRow; row < startRow + CHUNK_SIZE; row++) {
+            for (int col = startCol; col < startCol + CHUNK_SIZE; col++) {
+                int tileId = map.getDisplayTile(col, row);
+                if (tileId < 0) {
+                    continue; // Outside every room, never drawn
+                }
+                if (tileId >= TileAtlas.TILE_COUNT) {
+                    tileId = 1; // Use floor texture (1.png) for invalid tile IDs
+                }
+                TextureRegion region = tileAtlas.get(tileId);
+                if (region != null) {
+                    cache.add(region, col * tileSize, row * tileSize, tileSize, tileSize);
+                } else if (placeholder != null) {
+                    // Keep the sprite count stable with an empty quad so the chunk can be redefined in place
+                    cache.add(placeholder, col * tileSize, row * tileSize, 0, 0);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (SpriteCache cache : pages) {
+            if (cache != null) {
+                cache.dispose();
+            }
+        }
+        pages.clear();
+    }
+}
@@ -0,0 +1,47 @@
+package com.monkeyintrouble.render;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.monkeyintrouble.map.TileType;
+
+public class TileAtlas {
+    // Written by the core module's packTextures gradle task from the numbered tile PNGs
+    public static final String ATLAS_FILE = "tiles.atlas";
+    public static final int TILE_COUNT = TileType.ID_COUNT;
+
+    private final TextureRegion[] regions = new TextureRegion[TILE_COUNT];
+
+    // Looks the regions up in textures the manager has already loaded; the manager owns them
+    public TileAtlas(AssetManager manager) {
+        if (manager.isLoaded(ATLAS_FILE, TextureAtlas.class)) {
+            TextureAtlas atlas = manager.get(ATLAS_FILE, TextureAtlas.class);
+            for (int i = 0; i < TILE_COUNT; i++) {
+                regions[i] = atlas.findRegion(String.valueOf(i));
+            }
+        } else {
+            for (int i = 0; i < TILE_COUNT; i++) {
+                if (manager.isLoaded(tileFile(i), Texture.class)) {
+                    regions[i] = new TextureRegion(manager.get(tileFile(i), Texture.class));
+                } else {
+                    Gdx.app.log("TileAtlas", "Failed to load texture: " + tileFile(i));
+                }
+            }
+        }
+    }
+
+    // Image for a tile id when there is no packed atlas
+    public static String tileFile(int tileId) {
+        return tileId + ".png";
+    }
+
+    // Region for a tile id, or null if there is no image for it
+    public TextureRegion get(int tileId) {
+        if (tileId < 0 || tileId >= TILE_COUNT) {
+            return null;
+        }
+        return regions[tileId];
+    }
+}
@@ -0,0 +1,134 @@
+package com.monkeyintrouble.render;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.monkeyintrouble.entities.SawTrap;
+import com.monkeyintrouble.map.GameMap;
+import com.monkeyintrouble.map.HazardGrid;
+import com.monkeyintrouble.world.GameWorld;
+
+public class WorldRenderer implements Disposable {
+    // Extra pixels drawn around the camera so nothing pops in at the screen edge
+    private static final float VIEW_MARGIN = GameMap.TILE_SIZE;
+    // Saws are filed by the saw, which is never more than two tiles from any part of the
+    // three-tile track drawn with it
+    private static final float SAW_REACH = 2 * GameMap.TILE_SIZE;
+
+    // Draws the world from textures loaded up front, so the simulation itself never needs a GL context
+    private final GameWorld world;
+    private final TileAtlas tileAtlas;
+    private final StaticTileLayer staticTileLayer;
+    private final Rectangle view = new Rectangle(); // World area drawn this frame, margin included
+    private final Rectangle sawArea = new Rectangle();
+    private final IntArray nearby = new IntArray();
+    private final IntArray drawnBoxTraps = new IntArray();
+
+    public WorldRenderer(GameWorld world, TileAtlas tileAtlas) {
+        this.world = world;
+        GameMap map = world.getMap();
+
+        this.tileAtlas = tileAtlas;
+        this.staticTileLayer = new StaticTileLayer(map, tileAtlas, map.getWidthInTiles(), map.getHeightInTiles(), GameMap.TILE_SIZE);
+        map.setTileListener(staticTileLayer::markDirty);
+    }
+
+    // Draws the cached base tiles, then the moving game elements on top. Call outside
+    // SpriteBatch.begin/end with the batch already using the camera's projection.
+    // Only what overlaps the camera's view is drawn, and the elements are found through the
+    // map's hazard and prop grids, so the cost follows the screen, not the level.
+    public void render(SpriteBatch batch, Camera camera) {
+        GameMap map = world.getMap();
+        updateView(camera);
+        staticTileLayer.render(camera, view);
+
+        batch.begin();
+        // Render saw traps, then fire hazards
+        HazardGrid hazards = map.getHazardGrid();
+        sawArea.set(view.x - SAW_REACH, view.y, view.width + 2 * SAW_REACH, view.height);
+        hazards.query(sawArea, nearby);
+        for (int i = 0; i < nearby.size; i++) {
+            int id = nearby.get(i);
+            if (hazards.getKind(id) == GameMap.HAZARD_SAW) {
+                SawTrap sawTrap = map.getSawTraps().get(hazards.getOwner(id));
+                if (sawTrap.getTrackBounds().overlaps(view)) {
+                    sawTrap.render(batch, tileAtlas);
+                }
+            }
+        }
+        for (int i = 0; i < nearby.size; i++) {
+            int id = nearby.get(i);
+            Rectangle hitbox = hazards.getHitbox(id);
+            if (hazards.getKind(id) == GameMap.HAZARD_FIRE && hitbox.overlaps(view)) {
+                // Filed fires are the active ones, drawn where their hitbox is
+                batch.draw(tileAtlas.get(73), hitbox.x, hitbox.y, GameMap.TILE_SIZE, GameMap.TILE_SIZE); // fire.png
+            }
+        }
+
+        // Render bananas; the map never holds more than a few
+        for (Vector2 bananaPos : map.getBananas()) {
+            if (isTileVisible(bananaPos.x, bananaPos.y)) {
+                batch.draw(tileAtlas.get(64), bananaPos.x, bananaPos.y, GameMap.TILE_SIZE, GameMap.TILE_SIZE);
+            }
+        }
+
+        // Then render the boxes on top, and the box traps any part of which is near
+        HazardGrid props = map.getPropGrid();
+        props.query(view, nearby);
+        for (int i = 0; i < nearby.size; i++) {
+            int id = nearby.get(i);
+            if (props.getKind(id) == GameMap.PROP_BOX) {
+                Rectangle bounds = props.getHitbox(id);
+                batch.draw(tileAtlas.get(42), bounds.x, bounds.y, GameMap.TILE_SIZE, GameMap.TILE_SIZE);
+            }
+        }
+        drawnBoxTraps.clear();
+        for (int i = 0; i < nearby.size; i++) {
+            int id = nearby.get(i);
+            int owner = props.getOwner(id);
+            if (props.getKind(id) == GameMap.PROP_BOX_TRAP && !drawnBoxTraps.contains(owner)) {
+                drawnBoxTraps.add(owner);
+                map.getBoxTraps().get(owner).render(batch, tileAtlas, view);
+            }
+        }
+
+        world.getPlayer().render(batch, tileAtlas);
+        batch.end();
+    }
+
+    // Bounding box of the camera frustum's near plane, which for the orthographic game camera
+    // is exactly the screen, grown by the margin
+    private void updateView(Camera camera) {
+        Vector3[] corners = camera.frustum.planePoints;
+        float minX = corners[0].x;
+        float maxX = corners[0].x;
+        float minY = corners[0].y;
+        float maxY = corners[0].y;
+        for (int i = 1; i < 4; i++) {
+            minX = Math.min(minX, corners[i].x);
+            maxX = Math.max(maxX, corners[i].x);
+            minY = Math.min(minY, corners[i].y);
+            maxY = Math.max(maxY, corners[i].y);
+        }
+        view.set(minX - VIEW_MARGIN, minY - VIEW_MARGIN, maxX - minX + 2 * VIEW_MARGIN, maxY - minY + 2 * VIEW_MARGIN);
+    }
+
+    private boolean isTileVisible(float x, float y) {
+        return x + GameMap.TILE_SIZE > view.x && x < view.x + view.width
+            && y + GameMap.TILE_SIZE > view.y && y < view.y + view.height;
+    }
+
+    public TileAtlas getTileAtlas() {
+        return tileAtlas;
+    }
+
+    @Override
+    public void dispose() {
+        world.getMap().setTileListener(null);
+        staticTileLayer.dispose();
+    }
+}
@@ -1,62 +1,111 @@
 package com.monkeyintrouble.screens;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
 import com.monkeyintrouble.MonkeyInTroubleGame;
+import com.monkeyintrouble.assets.GameAssets;
 import com.monkeyintrouble.entities.Player;
-import com.monkeyintrouble.map.GameMap;
 import com.monkeyintrouble.map.MapLoader;
+import com.monkeyintrouble.render.WorldRenderer;
 import com.monkeyintrouble.ui.GameUI;
+import com.monkeyintrouble.world.GameWorld;
+import com.monkeyintrouble.world.InputLog;
+import com.monkeyintrouble.world.InputState;
+import com.monkeyintrouble.world.SaveGame;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.Timer;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class GameScreen implements Screen {
     private final MonkeyInTroubleGame game;
     private final SpriteBatch batch;
     private final OrthographicCamera camera;
-    private final GameMap gameMap;
+    private final GameWorld world;
+    private final WorldRenderer worldRenderer;
+    private final InputState input = new InputState();
     private final Player player;
     private final GameUI ui;
     private final ShapeRenderer shapeRenderer;
-    private final float startX = 142;
-    private final float startY = 62;
-
-    public GameScreen(MonkeyInTroubleGame game) {
+    private final InputLog recording; // Only when -Dmonkey.record=<directory> is given
+    private final Path saveFile;       // Only when -Dmonkey.save=<file> is given
+    private final SaveGame saveGame = new SaveGame();
+    private float autosaveTimer = 0;
+
+    // Directory that finished sessions are saved to as replayable input logs
+    public static final String RECORD_PROPERTY = "monkey.record";
+    // File the game resumes from at start and autosaves to while playing
+    public static final String SAVE_PROPERTY = "monkey.save";
+    // Level to play instead of level 1, for trying out levels in progress: a .json, .level or
+    // .tmx file, or a directory of Tiled rooms
+    public static final String LEVEL_PROPERTY = "monkey.level";
+    private static final float AUTOSAVE_SECONDS = 5f;
+
+    public GameScreen(MonkeyInTroubleGame game, GameAssets assets) {
         this.game = game;
         this.batch = new SpriteBatch();
         this.camera = new OrthographicCamera(800, 480);
         this.camera.position.set(400, 240, 0);
         this.camera.update();
 
-        // Load map
-        this.gameMap = MapLoader.loadLevel1();
-
-        // Create player at the starting position in the main room
-        this.player = new Player(gameMap, startX, startY);
-        this.gameMap.setPlayer(player);  // Set player reference in GameMap
-        this.ui = new GameUI(this);
+        // Load map and create player at the level's starting position
+        String levelName = levelName();
+        this.world = new GameWorld(MapLoader.loadNamedLevel(levelName));
+        this.player = world.getPlayer();
+        this.worldRenderer = new WorldRenderer(world, assets.getTileAtlas());
+        this.ui = new GameUI(this, assets);
         // Register UI as observer for player
         this.player.addObserver(this.ui);
 
         // Initialize shape renderer for debug
         this.shapeRenderer = new ShapeRenderer();
+
+        // Resume after the renderer and UI exist so they pick up the restored state.
+        // Replays start from a fresh level, so a resumed session is not recorded.
+        String savePath = System.getProperty(SAVE_PROPERTY);
+        this.saveFile = savePath != null ? Paths.get(savePath) : null;
+        boolean resumed = saveFile != null && Files.exists(saveFile) && loadGame();
+        this.recording = !resumed && System.getProperty(RECORD_PROPERTY) != null ? new InputLog() : null;
+        if (recording != null) {
+            recording.setLevelName(levelName);
+        }
+        world.setRecording(recording);
     }
 
     @Override
     public void render(float delta) {
+        // Sample the keyboard once per frame; the world consumes it in fixed ticks
+        input.set(InputState.LEFT, Gdx.input.isKeyPressed(Keys.LEFT));
+        input.set(InputState.RIGHT, Gdx.input.isKeyPressed(Keys.RIGHT));
+        input.set(InputState.UP, Gdx.input.isKeyPressed(Keys.UP));
+        input.set(InputState.DOWN, Gdx.input.isKeyPressed(Keys.DOWN));
+
         // Handle restart key
-        if (Gdx.input.isKeyJustPressed(com.badlogic.gdx.Input.Keys.R)) {
-            reset();
+        if (Gdx.input.isKeyJustPressed(Keys.R)) {
+            input.set(InputState.RESTART, true);
             ui.reset();
         }
         // Update game state
-        player.update(delta);
-        gameMap.update(delta);
+        world.update(delta, input);
+        if (saveFile != null) {
+            autosaveTimer += delta;
+            if (autosaveTimer >= AUTOSAVE_SECONDS) {
+                autosaveTimer = 0;
+                autosave();
+            }
+        }
 
         // Clear screen
         Gdx.gl.glClearColor(0, 0, 0, 1);
@@ -70,11 +119,8 @@ public class GameScreen implements Screen {
         // Set up sprite batch with camera
         batch.setProjectionMatrix(camera.combined);
 
-        // Render game elements
-        batch.begin();
-        gameMap.render(batch);
-        player.render(batch);
-        batch.end();
+        // Render the cached base tiles, then the moving game elements on top
+        worldRenderer.render(batch, camera);
 
         // Render UI (not affected by camera)
         batch.setProjectionMatrix(ui.getStage().getCamera().combined);
@@ -127,19 +173,62 @@ public class GameScreen implements Screen {
     @Override
     public void dispose() {
         batch.dispose();
-        gameMap.dispose();
-        player.dispose();
+        worldRenderer.dispose();
         ui.dispose();
         shapeRenderer.dispose();
+        if (recording != null) {
+            saveRecording();
+        }
+        if (saveFile != null) {
+            saveGame();
+        }
+        saveGame.dispose();
     }
 
-    public void reset() {
-        // Reset player (which also resets health)
-        player.reset();
+    private boolean loadGame() {
+        try {
+            saveGame.load(world, saveFile);
+        } catch (IOException e) {
+            Gdx.app.error("GameScreen", "Could not resume from " + saveFile + ", starting over", e);
+            world.reset();
+            return false;
+        }
+        if (world.getMap().isGameWon()) {
+            ui.onGameWon();
+        }
+        return true;
+    }
+
+    private void autosave() {
+        try {
+            saveGame.saveInBackground(world, saveFile);
+        } catch (IOException e) {
+            Gdx.app.error("GameScreen", "Could not save to " + saveFile, e);
+        }
+    }
 
-        // Reset map (which resets doors, buttons, etc)
-        gameMap.reset();
+    private void saveGame() {
+        try {
+            saveGame.save(world, saveFile);
+        } catch (IOException e) {
+            Gdx.app.error("GameScreen", "Could not save to " + saveFile, e);
+        }
+    }
 
-        System.out.println("Game Reset - All elements restored to original state!");
+    // The level to play, as MapLoader.loadNamedLevel takes it: -Dmonkey.level, or level 1.
+    // Paths are made absolute so recordings find the level from any directory.
+    public static String levelName() {
+        String level = System.getProperty(LEVEL_PROPERTY, MapLoader.LEVEL_1);
+        Path file = Paths.get(level);
+        return Files.exists(file) ? file.toAbsolutePath().toString() : level;
+    }
+
+    private void saveRecording() {
+        FileHandle file = Gdx.files.absolute(System.getProperty(RECORD_PROPERTY)).child("session-" + TimeUtils.millis() + ".replay");
+        try (OutputStream out = file.write(false)) {
+            recording.write(out);
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("GameScreen", "Could not save the session to " + file.path(), e);
+        }
     }
 }
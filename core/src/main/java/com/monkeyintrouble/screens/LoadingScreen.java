@@ -0,0 +1,72 @@
+package com.monkeyintrouble.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.monkeyintrouble.MonkeyInTroubleGame;
+import com.monkeyintrouble.assets.GameAssets;
+
+public class LoadingScreen implements Screen {
+    // Time given to the asset manager each frame, leaving the rest of a 60 fps frame for drawing
+    private static final int LOAD_MILLIS_PER_FRAME = 12;
+    private static final float BAR_WIDTH = 400;
+    private static final float BAR_HEIGHT = 24;
+
+    private final MonkeyInTroubleGame game;
+    private final GameAssets assets;
+    private final ShapeRenderer shapeRenderer = new ShapeRenderer();
+
+    public LoadingScreen(MonkeyInTroubleGame game, GameAssets assets) {
+        this.game = game;
+        this.assets = assets;
+    }
+
+    @Override
+    public void show() {
+        assets.queue();
+    }
+
+    @Override
+    public void render(float delta) {
+        if (assets.update(LOAD_MILLIS_PER_FRAME)) {
+            game.onAssetsLoaded();
+            return;
+        }
+
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        // Progress bar in the middle of the screen
+        float x = (Gdx.graphics.getWidth() - BAR_WIDTH) / 2;
+        float y = (Gdx.graphics.getHeight() - BAR_HEIGHT) / 2;
+        shapeRenderer.getProjectionMatrix().setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(0.2f, 0.2f, 0.2f, 1);
+        shapeRenderer.rect(x, y, BAR_WIDTH, BAR_HEIGHT);
+        shapeRenderer.setColor(1, 0.85f, 0.1f, 1);
+        shapeRenderer.rect(x, y, BAR_WIDTH * assets.getProgress(), BAR_HEIGHT);
+        shapeRenderer.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void hide() {
+    }
+
+    @Override
+    public void dispose() {
+        shapeRenderer.dispose();
+    }
+}
@@ -1,10 +1,15 @@
 package com.monkeyintrouble.states;
 
 import com.monkeyintrouble.entities.Player;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
+import com.monkeyintrouble.render.TileAtlas;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public class GhostState implements MonkeyState {
+    private static final int GHOST_RIGHT = 60;
+    private static final int GHOST_LEFT = 61;
 
     @Override
     public void update(Player player, float delta) {
@@ -13,10 +18,9 @@ public class GhostState implements MonkeyState {
     }
 
     @Override
-    public void render(Player player, SpriteBatch batch) {
+    public void render(Player player, SpriteBatch batch, TileAtlas tileAtlas) {
         // Use ghost textures based on facing direction
-        Texture currentTexture = player.isFacingRight() ?
-            player.getGhostRightTexture() : player.getGhostLeftTexture();
+        TextureRegion currentTexture = tileAtlas.get(player.isFacingRight() ? GHOST_RIGHT : GHOST_LEFT);
 
         batch.draw(currentTexture,
             player.getPosition().x,
@@ -28,11 +32,11 @@ public class GhostState implements MonkeyState {
 
     @Override
     public void onEnter(Player player) {
-        System.out.println("Player entered Ghost State");
+        EventLog.log(LogEvent.GHOST_ENTERED);
     }
 
     @Override
     public void onExit(Player player) {
-        System.out.println("Player exited Ghost State");
+        EventLog.log(LogEvent.GHOST_EXITED);
     }
 }
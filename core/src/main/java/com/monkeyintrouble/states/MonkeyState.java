@@ -2,10 +2,11 @@ package com.monkeyintrouble.states;
 
 import com.monkeyintrouble.entities.Player;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.monkeyintrouble.render.TileAtlas;
 
 public interface MonkeyState {
     void update(Player player, float delta);
-    void render(Player player, SpriteBatch batch);
+    void render(Player player, SpriteBatch batch, TileAtlas tileAtlas);
     void onEnter(Player player);
     void onExit(Player player);
 }
@@ -1,17 +1,13 @@
 package com.monkeyintrouble.states;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.monkeyintrouble.entities.Player;
+import com.monkeyintrouble.render.TileAtlas;
 
 public class NormalState implements MonkeyState {
-    private Texture normalLeftTexture;
-    private Texture normalRightTexture;
-
-    public NormalState() {
-        normalLeftTexture = new Texture("59.png");
-        normalRightTexture = new Texture("58.png");
-    }
+    private static final int MONKEY_RIGHT = 58;
+    private static final int MONKEY_LEFT = 59;
 
     @Override
     public void update(Player player, float deltaTime) {
@@ -19,8 +15,8 @@ public class NormalState implements MonkeyState {
     }
 
     @Override
-    public void render(Player player, SpriteBatch batch) {
-        Texture currentTexture = player.isFacingRight() ? normalRightTexture : normalLeftTexture;
+    public void render(Player player, SpriteBatch batch, TileAtlas tileAtlas) {
+        TextureRegion currentTexture = tileAtlas.get(player.isFacingRight() ? MONKEY_RIGHT : MONKEY_LEFT);
         batch.draw(currentTexture,
             player.getPosition().x,
             player.getPosition().y,
@@ -38,9 +34,4 @@ public class NormalState implements MonkeyState {
     public void onExit(Player player) {
         // Nothing special to do when exiting normal state
     }
-
-    public void dispose() {
-        normalLeftTexture.dispose();
-        normalRightTexture.dispose();
-    }
 }
@@ -11,6 +11,9 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.monkeyintrouble.assets.GameAssets;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
 import com.monkeyintrouble.observers.MonkeyObserver;
 import com.monkeyintrouble.entities.Player;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
@@ -35,9 +38,11 @@ public class GameUI implements MonkeyObserver {
     private Texture bananaTexture;
     private Texture emptyBananaTexture;
     private MonkeyObserver observer;
+    private final GameAssets assets;
 
-    public GameUI(GameScreen gameScreen) {
+    public GameUI(GameScreen gameScreen, GameAssets assets) {
         this.gameScreen = gameScreen;
+        this.assets = assets;
         this.stage = new Stage(new ScreenViewport());
         Gdx.input.setInputProcessor(stage);
 
@@ -46,17 +51,17 @@ public class GameUI implements MonkeyObserver {
         font.setColor(Color.WHITE);
         font.getData().setScale(2);
 
-        // Load textures
-        fullHeartTexture = new Texture(Gdx.files.internal("heart1.png"));
-        emptyHeartTexture = new Texture(Gdx.files.internal("heart2.png"));
-        bananaTexture = new Texture(Gdx.files.internal("banana1.png"));
-        emptyBananaTexture = new Texture(Gdx.files.internal("banana2.png"));
+        // Borrow the shared textures
+        fullHeartTexture = assets.acquireTexture(GameAssets.HEART_FULL);
+        emptyHeartTexture = assets.acquireTexture(GameAssets.HEART_EMPTY);
+        bananaTexture = assets.acquireTexture(GameAssets.BANANA_FULL);
+        emptyBananaTexture = assets.acquireTexture(GameAssets.BANANA_EMPTY);
     }
 
     @Override
     public void onHeartsChanged(int hearts) {
         this.hearts = hearts;
-        System.out.println("Health: " + hearts);
+        EventLog.log(LogEvent.HEALTH_CHANGED, hearts);
         if (hearts <= 0) {
             isGameOver = true;
         }
@@ -65,18 +70,18 @@ public class GameUI implements MonkeyObserver {
     @Override
     public void onBananasChanged(int bananas) {
         this.bananaCount = bananas;
-        System.out.println("Bananas: " + bananaCount);
+        EventLog.log(LogEvent.BANANAS_CHANGED, bananaCount);
     }
 
     @Override
     public void onGhostModeChanged(boolean isGhostMode) {
-        System.out.println("Ghost mode: " + isGhostMode);
+        EventLog.log(LogEvent.GHOST_MODE_CHANGED, isGhostMode ? 1 : 0);
     }
 
     @Override
     public void onGameWon() {
         this.isGameWon = true;
-        System.out.println("Victory state updated in UI");
+        EventLog.log(LogEvent.GAME_WON);
     }
 
     public void render(SpriteBatch batch) {
@@ -145,10 +150,10 @@ public class GameUI implements MonkeyObserver {
     public void dispose() {
         font.dispose();
         stage.dispose();
-        fullHeartTexture.dispose();
-        emptyHeartTexture.dispose();
-        bananaTexture.dispose();
-        emptyBananaTexture.dispose();
+        assets.releaseTexture(GameAssets.HEART_FULL);
+        assets.releaseTexture(GameAssets.HEART_EMPTY);
+        assets.releaseTexture(GameAssets.BANANA_FULL);
+        assets.releaseTexture(GameAssets.BANANA_EMPTY);
     }
 
     public void resize(int width, int height) {
@@ -0,0 +1,124 @@
+package com.monkeyintrouble.world;
+
+import com.monkeyintrouble.entities.Player;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.log.LogEvent;
+import com.monkeyintrouble.map.GameMap;
+import java.nio.ByteBuffer;
+
+public class GameWorld {
+    // The simulation always advances in fixed steps so a given input sequence
+    // plays out the same way regardless of frame rate, with or without a GL context
+    public static final float TICK = 1f / 60f;
+    private static final float MAX_FRAME_TIME = 0.25f; // Cap the catch-up after a long stall
+
+    private final GameMap map;
+    private final Player player;
+    private float accumulator = 0;
+    private long tick = 0;
+    private InputLog recording;
+
+    // Starts the player where the level says
+    public GameWorld(GameMap map) {
+        this(map, map.getStartX(), map.getStartY());
+    }
+
+    public GameWorld(GameMap map, float startX, float startY) {
+        this.map = map;
+        this.player = new Player(map, startX, startY);
+        map.setPlayer(player);
+    }
+
+    // Runs as many whole ticks as the elapsed time allows and returns how many ran.
+    // RESTART is edge-triggered: it is consumed by the first tick that sees it.
+    public int update(float deltaTime, InputState input) {
+        accumulator += Math.min(deltaTime, MAX_FRAME_TIME);
+        int steps = 0;
+        while (accumulator >= TICK) {
+            accumulator -= TICK;
+            step(input);
+            input.set(InputState.RESTART, false);
+            steps++;
+        }
+        return steps;
+    }
+
+    public void step(InputState input) {
+        EventLog.setTick(tick);
+        if (recording != null) {
+            recording.record(input.getButtons());
+        }
+        if (input.isPressed(InputState.RESTART)) {
+            reset();
+        }
+        player.update(TICK, input);
+        map.update(TICK);
+        if (recording != null) {
+            recording.recordState(player);
+        }
+        tick++;
+    }
+
+    public void reset() {
+        // Reset player (which also resets health)
+        player.reset();
+
+        // Reset map (which resets doors, buttons, etc)
+        map.reset();
+
+        EventLog.log(LogEvent.GAME_RESET);
+    }
+
+    // Records the input of every tick into the log, or stops recording if null. Replays
+    // start from a freshly loaded level, so recording must start on one too.
+    public void setRecording(InputLog recording) {
+        if (recording != null) {
+            if (tick != 0) {
+                throw new IllegalStateException("Recording must start on a fresh world");
+            }
+            recording.startOnLevel(map.getLevelFingerprint());
+        }
+        this.recording = recording;
+    }
+
+    public int getSaveBytes() {
+        return 8 + Player.SAVE_BYTES + map.getSaveBytes();
+    }
+
+    public void save(ByteBuffer out) {
+        out.putLong(tick);
+        player.save(out);
+        map.save(out);
+    }
+
+    // Continues from a save of the same level; the frame time not yet simulated is dropped.
+    // The map goes first because it checks the whole of its part before changing anything,
+    // so a save of another level throws with the player and tick untouched.
+    public void restore(ByteBuffer in) {
+        int start = in.position();
+        if (in.remaining() < 8 + Player.SAVE_BYTES) {
+            throw new IllegalArgumentException("Save is truncated");
+        }
+        in.position(start + 8 + Player.SAVE_BYTES);
+        map.restore(in);
+        int end = in.position();
+
+        in.position(start + 8);
+        player.restore(in);
+        tick = in.getLong(start);
+        accumulator = 0;
+        in.position(end);
+    }
+
+    public GameMap getMap() {
+        return map;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,172 @@
+package com.monkeyintrouble.world;
+
+import com.badlogic.gdx.utils.ByteArray;
+import com.monkeyintrouble.entities.Player;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class InputLog {
+    // The InputState buttons of every fixed tick of a run, in order. Kept as one byte per
+    // tick in memory and written as runs of identical ticks, so held keys cost a few bytes
+    // per run rather than per tick. Together with the level it starts on, this is enough
+    // to play the run again exactly. A log recorded through GameWorld also carries that
+    // level's name and fingerprint and the checksum Replay gives the run, so a replay can
+    // tell when it is on the wrong level or the engine now plays the run differently.
+    // Version 1 logs, which carry neither, still load.
+    private static final int MAGIC = 0x4d495452; // "MITR"
+    private static final int VERSION = 2;
+
+    private final float tickSeconds;
+    private final ByteArray ticks = new ByteArray();
+    private String levelName;
+    private boolean recordedOnLevel;
+    private long levelFingerprint;
+    private long checksum = Replay.CHECKSUM_SEED;
+
+    public InputLog() {
+        this(GameWorld.TICK);
+    }
+
+    public InputLog(float tickSeconds) {
+        this.tickSeconds = tickSeconds;
+    }
+
+    public void record(int buttons) {
+        ticks.add((byte) buttons);
+    }
+
+    // Called by GameWorld when recording starts on a fresh level
+    void startOnLevel(long fingerprint) {
+        recordedOnLevel = true;
+        levelFingerprint = fingerprint;
+        checksum = Replay.CHECKSUM_SEED;
+    }
+
+    // Called by GameWorld after every recorded tick
+    void recordState(Player player) {
+        checksum = Replay.fold(checksum, player);
+    }
+
+    // How the level can be loaded again: a level on the classpath or a path, as
+    // MapLoader.loadNamedLevel takes it. Null if unknown.
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public void setLevelName(String levelName) {
+        this.levelName = levelName;
+    }
+
+    // Whether the log knows the level it was recorded on and the checksum of the run
+    public boolean isVerifiable() {
+        return recordedOnLevel;
+    }
+
+    public long getLevelFingerprint() {
+        return levelFingerprint;
+    }
+
+    // Replay's checksum of the recorded run, if isVerifiable()
+    public long getChecksum() {
+        return checksum;
+    }
+
+    // Number of ticks recorded
+    public int size() {
+        return ticks.size;
+    }
+
+    public int getButtons(int tick) {
+        return ticks.get(tick) & 0xff;
+    }
+
+    public float getTickSeconds() {
+        return tickSeconds;
+    }
+
+    public void clear() {
+        ticks.clear();
+        recordedOnLevel = false;
+        checksum = Replay.CHECKSUM_SEED;
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeFloat(tickSeconds);
+        out.writeUTF(levelName != null ? levelName : "");
+        out.writeBoolean(recordedOnLevel);
+        out.writeLong(levelFingerprint);
+        out.writeLong(checksum);
+        out.writeInt(ticks.size);
+        int start = 0;
+        while (start < ticks.size) {
+            byte buttons = ticks.get(start);
+            int end = start + 1;
+            while (end < ticks.size && ticks.get(end) == buttons) {
+                end++;
+            }
+            out.writeByte(buttons);
+            writeVarInt(out, end - start);
+            start = end;
+        }
+        out.flush();
+    }
+
+    public static InputLog read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an input log");
+        }
+        int version = in.readUnsignedShort();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported input log version " + version);
+        }
+        InputLog log = new InputLog(in.readFloat());
+        if (version >= 2) {
+            String levelName = in.readUTF();
+            log.levelName = levelName.isEmpty() ? null : levelName;
+            log.recordedOnLevel = in.readBoolean();
+            log.levelFingerprint = in.readLong();
+            log.checksum = in.readLong();
+        }
+        int size = in.readInt();
+        log.ticks.ensureCapacity(size);
+        while (log.ticks.size < size) {
+            byte buttons = in.readByte();
+            int run = readVarInt(in);
+            if (run <= 0 || run > size - log.ticks.size) {
+                throw new IOException("Corrupt input log: run of " + run + " at tick " + log.ticks.size);
+            }
+            for (int i = 0; i < run; i++) {
+                log.ticks.add(buttons);
+            }
+        }
+        return log;
+    }
+
+    // 7 bits per byte, low bits first; most runs fit in one or two bytes
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt input log: run length too long");
+    }
+}
@@ -0,0 +1,36 @@
+package com.monkeyintrouble.world;
+
+public class InputState {
+    // One bit per control, so a whole tick of input fits in an int
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int RESTART = 1 << 4;
+
+    private int buttons;
+
+    public boolean isPressed(int button) {
+        return (buttons & button) != 0;
+    }
+
+    public void set(int button, boolean pressed) {
+        if (pressed) {
+            buttons |= button;
+        } else {
+            buttons &= ~button;
+        }
+    }
+
+    public int getButtons() {
+        return buttons;
+    }
+
+    public void setButtons(int buttons) {
+        this.buttons = buttons;
+    }
+
+    public void clear() {
+        buttons = 0;
+    }
+}
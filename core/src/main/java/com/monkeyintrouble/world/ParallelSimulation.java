@@ -0,0 +1,151 @@
+package com.monkeyintrouble.world;
+
+import com.monkeyintrouble.entities.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class ParallelSimulation {
+    // Many independent worlds stepped at once in one JVM, one task per world on a fork/join
+    // pool, for headless playtesting and load measurements. Each world has its own map,
+    // player and input, and the simulation keeps no state outside them (the event log gives
+    // every thread its own ring and tick), so worlds never wait on each other and each plays
+    // out exactly as it would alone: its checksum is the one Replay gives for its recorded
+    // input, whatever the number of threads.
+    public interface Worlds {
+        GameWorld create(int instance);
+    }
+
+    public interface Bots {
+        Bot create(int instance);
+    }
+
+    public interface Bot {
+        // Buttons held during the next tick
+        int nextButtons(GameWorld world);
+    }
+
+    public static class Report {
+        public final Replay.Result[] results;
+        public final InputLog[] recordings; // Null unless recording was asked for
+        public final long ticks;
+        public final long nanos;
+        public final int threads;
+
+        Report(Replay.Result[] results, InputLog[] recordings, long nanos, int threads) {
+            this.results = results;
+            this.recordings = recordings;
+            long total = 0;
+            for (Replay.Result result : results) {
+                total += result.ticks;
+            }
+            this.ticks = total;
+            this.nanos = nanos;
+            this.threads = threads;
+        }
+
+        // Ticks of all worlds together per second of wall time
+        public double getTicksPerSecond() {
+            return nanos == 0 ? 0 : ticks * 1e9 / nanos;
+        }
+    }
+
+    // Holds a random set of direction buttons for a while, then picks another, and now and
+    // then restarts the level
+    public static class RandomWalk implements Bot {
+        private static final int HOLD_TICKS = 40;
+        private static final int RESTART_CHANCE = 3000;
+
+        private final Random random;
+        private int buttons;
+
+        public RandomWalk(long seed) {
+            random = new Random(seed);
+        }
+
+        @Override
+        public int nextButtons(GameWorld world) {
+            if (world.getTick() % HOLD_TICKS == 0) {
+                buttons = random.nextInt(InputState.RESTART);
+            }
+            return random.nextInt(RESTART_CHANCE) == 0 ? buttons | InputState.RESTART : buttons;
+        }
+    }
+
+    private ParallelSimulation() {
+    }
+
+    // Builds the worlds, then steps each for the given number of ticks. Only the stepping is
+    // timed. With record set, every world's input is kept so it can be replayed alone.
+    public static Report run(int instances, int ticks, Worlds worlds, Bots bots, boolean record, ForkJoinPool pool) {
+        List<Callable<GameWorld>> builds = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            int instance = i;
+            builds.add(() -> worlds.create(instance));
+        }
+        List<GameWorld> built = join(pool.invokeAll(builds));
+
+        Replay.Result[] results = new Replay.Result[instances];
+        InputLog[] recordings = record ? new InputLog[instances] : null;
+        List<Callable<Void>> runs = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            int instance = i;
+            GameWorld world = built.get(i);
+            Bot bot = bots.create(i);
+            if (record) {
+                recordings[i] = new InputLog();
+                world.setRecording(recordings[i]);
+            }
+            runs.add(() -> {
+                results[instance] = step(world, bot, ticks);
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        join(pool.invokeAll(runs));
+        long nanos = System.nanoTime() - start;
+        return new Report(results, recordings, nanos, pool.getParallelism());
+    }
+
+    private static Replay.Result step(GameWorld world, Bot bot, int ticks) {
+        Player player = world.getPlayer();
+        InputState input = new InputState();
+        long checksum = Replay.CHECKSUM_SEED;
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            input.setButtons(bot.nextButtons(world));
+            world.step(input);
+            checksum = Replay.fold(checksum, player);
+        }
+        long nanos = System.nanoTime() - start;
+        return new Replay.Result(ticks, nanos, checksum, player.getHearts(), player.getBananas(), world.getMap().isGameWon(),
+            false, true);
+    }
+
+    // invokeAll waits for every task, so this only unwraps failures
+    private static <T> List<T> join(List<Future<T>> futures) {
+        List<T> values = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                values.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while simulating", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        return values;
+    }
+}
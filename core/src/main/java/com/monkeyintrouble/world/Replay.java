@@ -0,0 +1,75 @@
+package com.monkeyintrouble.world;
+
+import com.monkeyintrouble.entities.Player;
+
+public class Replay {
+    // Plays an input log through a freshly built world, tick by tick and as fast as the CPU
+    // allows. Nothing here needs a window or GL context. The checksum folds in the player's
+    // state after every tick, so two runs of the same log on the same level agree exactly
+    // unless the engine's behaviour changed. Logs that know their level are only played on
+    // it, and their recorded checksum is compared with the replay's.
+    public static class Result {
+        public final int ticks;
+        public final long nanos;
+        public final long checksum;
+        public final int hearts;
+        public final int bananas;
+        public final boolean won;
+        // Whether the log carried its recorded checksum, and if so whether this run gave it
+        public final boolean checked;
+        public final boolean matches;
+
+        Result(int ticks, long nanos, long checksum, int hearts, int bananas, boolean won, boolean checked, boolean matches) {
+            this.ticks = ticks;
+            this.nanos = nanos;
+            this.checksum = checksum;
+            this.hearts = hearts;
+            this.bananas = bananas;
+            this.won = won;
+            this.checked = checked;
+            this.matches = matches;
+        }
+
+        public double getTicksPerSecond() {
+            return nanos == 0 ? 0 : ticks * 1e9 / nanos;
+        }
+    }
+
+    static final long CHECKSUM_SEED = 17;
+
+    private Replay() {
+    }
+
+    public static Result run(GameWorld world, InputLog log) {
+        if (log.getTickSeconds() != GameWorld.TICK) {
+            throw new IllegalArgumentException("Log was recorded at " + log.getTickSeconds()
+                + " s per tick, the world runs at " + GameWorld.TICK);
+        }
+        if (world.getTick() != 0) {
+            throw new IllegalStateException("Replays must start on a fresh world");
+        }
+        if (log.isVerifiable() && log.getLevelFingerprint() != world.getMap().getLevelFingerprint()) {
+            throw new IllegalArgumentException("Log was recorded on another level"
+                + (log.getLevelName() != null ? " (" + log.getLevelName() + ")" : ""));
+        }
+        Player player = world.getPlayer();
+        InputState input = new InputState();
+        long checksum = CHECKSUM_SEED;
+        long start = System.nanoTime();
+        for (int tick = 0; tick < log.size(); tick++) {
+            input.setButtons(log.getButtons(tick));
+            world.step(input);
+            checksum = fold(checksum, player);
+        }
+        long nanos = System.nanoTime() - start;
+        return new Result(log.size(), nanos, checksum, player.getHearts(), player.getBananas(), world.getMap().isGameWon(),
+            log.isVerifiable(), !log.isVerifiable() || checksum == log.getChecksum());
+    }
+
+    // Folds the player's state after a tick into a running checksum
+    static long fold(long checksum, Player player) {
+        checksum = checksum * 31 + Float.floatToIntBits(player.getPosition().x);
+        checksum = checksum * 31 + Float.floatToIntBits(player.getPosition().y);
+        return checksum * 31 + (player.getHearts() << 8 | player.getBananas() << 1 | (player.isGhostMode() ? 1 : 0));
+    }
+}
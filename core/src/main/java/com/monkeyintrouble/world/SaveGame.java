@@ -0,0 +1,145 @@
+package com.monkeyintrouble.world;
+
+import com.badlogic.gdx.utils.Disposable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SaveGame implements Disposable {
+    // The full game state as a small binary file: a header, then GameWorld.save(). Levels
+    // are stored as their changes since loading, so level 1 saves in about 130 bytes. One
+    // direct buffer is reused across saves, so autosaving every few seconds neither
+    // allocates nor copies. Capturing the state takes microseconds; writing the file can
+    // take milliseconds, so autosaves leave that to a background thread.
+    private static final int MAGIC = 0x4d495453; // "MITS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 4; // Magic, version, payload length
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SaveGame writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pendingWrite;
+
+    public void save(GameWorld world, Path file) throws IOException {
+        finishPendingWrite();
+        fill(world);
+        write(file);
+    }
+
+    // Captures the state now and writes it on the writer thread. A failed write is
+    // reported by the next save or load.
+    public void saveInBackground(GameWorld world, Path file) throws IOException {
+        finishPendingWrite();
+        fill(world);
+        pendingWrite = writer.submit(() -> {
+            write(file);
+            return null;
+        });
+    }
+
+    // Blocks until the last background save is on disk
+    public void finishPendingWrite() throws IOException {
+        if (pendingWrite == null) {
+            return;
+        }
+        try {
+            pendingWrite.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            pendingWrite = null;
+        }
+    }
+
+    private void fill(GameWorld world) {
+        int size = HEADER_BYTES + world.getSaveBytes();
+        ensureCapacity(size);
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putInt(size - HEADER_BYTES);
+        world.save(buffer);
+        if (buffer.position() != size) {
+            throw new IllegalStateException("Save wrote " + buffer.position() + " bytes, expected " + size);
+        }
+        buffer.flip();
+    }
+
+    private void write(Path file) throws IOException {
+        // Written next to the target and moved over it, so a crash mid-save never leaves a broken file
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // The world must be on the level the save was made on
+    public void load(GameWorld world, Path file) throws IOException {
+        finishPendingWrite();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a save file: " + file);
+            }
+            ensureCapacity((int) size);
+            buffer.clear();
+            buffer.limit((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated save: " + file);
+                }
+            }
+            buffer.flip();
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a save file: " + file);
+        }
+        int version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported save version " + version + ": " + file);
+        }
+        if (buffer.getInt() != buffer.remaining()) {
+            throw new IOException("Truncated save: " + file);
+        }
+        try {
+            world.restore(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt save: " + file, e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        writer.shutdown();
+    }
+
+    private void ensureCapacity(int size) {
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Math.max(size, buffer.capacity() * 2));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.monkeyintrouble.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.monkeyintrouble.entities.BoxTrap;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.world.GameWorld;
+import com.monkeyintrouble.world.InputState;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class BoxTrapTest {
+    // A box trap is armed and solid until a box is pushed onto a button in its room, and
+    // reset arms it again. The second trap has no box or button of its own, so it only
+    // opens as a tile.
+    static {
+        EventLog.setLevel(EventLog.NONE);
+    }
+
+    private static final int[][] ROOM = {
+        {3, 3, 3, 3, 3, 3, 3},
+        {3, 31, 1, 1, 39, 1, 3},
+        {3, 1, 1, 1, 1, 1, 3},
+        {3, 1, 42, 32, 1, 31, 3},
+        {3, 3, 3, 3, 3, 3, 3},
+    };
+    private static final int TRAP_COL = 1;
+    private static final int TRAP_ROW = 3;
+    // Just short of the box, so the first step right lands inside the push margin
+    private static final float START_X = 2 * 32 - 24 - 2;
+    private static final float START_Y = 36;
+
+    @Test
+    public void pairsPartsInScanOrder() {
+        GameMap map = createMap();
+        assertEquals(1, map.getBoxTraps().size);
+        BoxTrap trap = map.getBoxTraps().first();
+        assertEquals(new Rectangle(TRAP_COL * 32, TRAP_ROW * 32, 32, 32), trap.getTrapHitbox());
+        assertEquals(new Rectangle(4 * 32, 3 * 32, 32, 32), trap.getBoxHitbox());
+        assertEquals(new Rectangle(3 * 32, 32, 32, 32), trap.getButtonHitbox());
+        // The pushable box stays an ordinary box
+        assertEquals(1, map.getBoxes().size);
+    }
+
+    @Test
+    public void openWhenBoxIsPushedOntoButton() {
+        GameWorld world = new GameWorld(createMap(), START_X, START_Y);
+        GameMap map = world.getMap();
+        BoxTrap trap = map.getBoxTraps().first();
+        assertArmed(map, trap);
+
+        pushRight(world);
+        assertTrue(trap.isTriggered());
+        assertFalse(map.isCollidingWithHazards(trap.getTrapHitbox()));
+        assertFalse(map.isColliding(trap.getTrapHitbox()));
+        assertEquals(TileType.OPEN_TRAP_ID, map.getDisplayTile(TRAP_COL, TRAP_ROW));
+        assertEquals(TileType.BANANA_BOX_ID, map.getDisplayTile(4, 3));
+        assertEquals(TileType.OPEN_TRAP_ID, map.getDisplayTile(5, 1));
+
+        map.reset();
+        assertArmed(map, trap);
+        assertEquals(2 * 32, map.getBoxes().first().bounds.x, 0);
+        assertEquals(31, map.getDisplayTile(5, 1));
+    }
+
+    @Test
+    public void triggeredStateSurvivesSaveAndRestore() {
+        GameWorld world = new GameWorld(createMap(), START_X, START_Y);
+        GameMap map = world.getMap();
+        pushRight(world);
+        ByteBuffer save = ByteBuffer.allocate(map.getSaveBytes());
+        map.save(save);
+        save.flip();
+
+        map.reset();
+        map.restore(save);
+        BoxTrap trap = map.getBoxTraps().first();
+        assertTrue(trap.isTriggered());
+        assertFalse(map.isCollidingWithHazards(trap.getTrapHitbox()));
+        map.reset();
+        assertArmed(map, trap);
+    }
+
+    private static GameMap createMap() {
+        Array<GameMap.Room> rooms = new Array<>();
+        rooms.add(new GameMap.Room(ROOM, 0, 0));
+        return new GameMap(rooms);
+    }
+
+    private static void pushRight(GameWorld world) {
+        InputState input = new InputState();
+        input.set(InputState.RIGHT, true);
+        for (int tick = 0; tick < 60; tick++) {
+            world.step(input);
+        }
+    }
+
+    private static void assertArmed(GameMap map, BoxTrap trap) {
+        assertFalse(trap.isTriggered());
+        assertTrue(map.isCollidingWithHazards(trap.getTrapHitbox()));
+        assertTrue(map.isColliding(trap.getTrapHitbox()));
+        assertEquals(31, map.getDisplayTile(TRAP_COL, TRAP_ROW));
+        assertEquals(TileType.TRAP_BOX_ID, map.getDisplayTile(4, 3));
+    }
+}
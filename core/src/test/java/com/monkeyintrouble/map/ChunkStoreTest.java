@@ -0,0 +1,110 @@
+package com.monkeyintrouble.map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.world.GameWorld;
+import com.monkeyintrouble.world.InputState;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+
+public class ChunkStoreTest {
+    // Which chunks happen to be loaded must never show: on the smallest budget, where chunks
+    // are evicted all the time, the same inputs must play and save exactly as on a budget
+    // that keeps the whole level
+    private static final int ROOMS = 400;
+    private static final int TICKS = 20000;
+
+    static {
+        EventLog.setLevel(EventLog.NONE);
+    }
+
+    @Test
+    public void playDoesNotDependOnBudget() {
+        GameWorld streamed = world(0);
+        GameWorld whole = world(Long.MAX_VALUE);
+        Random random = new Random(7);
+        InputState input = new InputState();
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % 40 == 0) {
+                input.setButtons(random.nextInt(InputState.RESTART));
+            }
+            if (tick % 300 == 0) {
+                teleport(random, streamed, whole);
+            }
+            streamed.step(input);
+            whole.step(input);
+            assertEquals("x at tick " + tick, whole.getPlayer().getBounds().x, streamed.getPlayer().getBounds().x, 0);
+            assertEquals("y at tick " + tick, whole.getPlayer().getBounds().y, streamed.getPlayer().getBounds().y, 0);
+            assertEquals("hearts at tick " + tick, whole.getPlayer().getHearts(), streamed.getPlayer().getHearts());
+            assertEquals("bananas at tick " + tick, whole.getPlayer().getBananas(), streamed.getPlayer().getBananas());
+        }
+
+        ChunkStore chunks = streamed.getMap().getChunks();
+        assertTrue(chunks.getSavedCount() > 0);
+        assertTrue(chunks.getResidentCount() < whole.getMap().getChunks().getResidentCount());
+        assertEquals(whole.getMap().getGrid().getChangedCount(), streamed.getMap().getGrid().getChangedCount());
+        assertArrayEquals(saved(whole), saved(streamed));
+    }
+
+    @Test
+    public void evictedChangesSurviveSaveResetAndRestore() {
+        GameWorld world = world(0);
+        play(world, 8);
+        assertTrue(world.getMap().getChunks().getSavedCount() > 0);
+        byte[] save = saved(world);
+
+        world.reset();
+        assertEquals(0, world.getMap().getGrid().getChangedCount());
+        assertEquals(0, world.getMap().getChunks().getSavedCount());
+        world.restore(ByteBuffer.wrap(save));
+        assertArrayEquals(save, saved(world));
+
+        // A map that keeps every chunk reads the same save the same way
+        GameWorld whole = world(Long.MAX_VALUE);
+        whole.restore(ByteBuffer.wrap(save));
+        assertArrayEquals(save, saved(whole));
+        assertEquals(world.getMap().getGrid().getChangedCount(), whole.getMap().getGrid().getChangedCount());
+    }
+
+    private static GameWorld world(long budget) {
+        LevelGenerator.Settings settings = new LevelGenerator.Settings();
+        settings.roomCount = ROOMS;
+        GameMap map = MapLoader.generateLevel(settings, 3);
+        map.getChunks().setBudget(budget);
+        return new GameWorld(map, LevelGenerator.SPAWN_X, LevelGenerator.SPAWN_Y);
+    }
+
+    // Random buttons with a teleport now and then, so the walk streams chunks all over the level
+    private static void play(GameWorld world, long seed) {
+        Random random = new Random(seed);
+        InputState input = new InputState();
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % 40 == 0) {
+                input.setButtons(random.nextInt(InputState.RESTART));
+            }
+            if (tick % 300 == 0) {
+                teleport(random, world);
+            }
+            world.step(input);
+        }
+    }
+
+    private static void teleport(Random random, GameWorld... worlds) {
+        GameMap map = worlds[0].getMap();
+        float x = random.nextInt(map.getWidthInTiles()) * GameMap.TILE_SIZE + 4;
+        float y = random.nextInt(map.getHeightInTiles()) * GameMap.TILE_SIZE + 4;
+        for (GameWorld world : worlds) {
+            world.getPlayer().teleport(x, y);
+        }
+    }
+
+    private static byte[] saved(GameWorld world) {
+        ByteBuffer out = ByteBuffer.allocate(world.getSaveBytes());
+        world.save(out);
+        return out.array();
+    }
+}
@@ -0,0 +1,94 @@
+package com.monkeyintrouble.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.monkeyintrouble.entities.Player;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.world.InputState;
+import java.util.Random;
+import org.junit.Test;
+
+public class CollisionGridTest {
+    // Sweeps must stop where walking the same move in tiny steps stops
+    private static final int TILE = GameMap.TILE_SIZE;
+    private static final float SIZE = 24;   // The player's size
+    private static final float STEP = 0.05f;
+
+    static {
+        EventLog.setLevel(EventLog.NONE);
+    }
+
+    @Test
+    public void sweepsMatchSmallSteps() {
+        Random random = new Random(1);
+        for (float density : new float[] {0.05f, 0.3f, 0.6f}) {
+            CollisionGrid grid = new CollisionGrid(80, 60, TILE);
+            for (int row = 0; row < grid.getHeight(); row++) {
+                for (int col = 0; col < grid.getWidth(); col++) {
+                    grid.setSolid(col, row, random.nextFloat() < density);
+                }
+            }
+            fuzz(grid, random);
+        }
+    }
+
+    @Test
+    public void sweepsMatchSmallStepsInLevels() {
+        LevelGenerator.Settings settings = new LevelGenerator.Settings();
+        settings.roomCount = 50;
+        settings.wallDensity = 0.3f;
+        fuzz(MapLoader.loadLevel1().getCollisionGrid(), new Random(2));
+        fuzz(MapLoader.generateLevel(settings, 3).getCollisionGrid(), new Random(3));
+    }
+
+    @Test
+    public void longFrameStopsAtWall() {
+        // Ten seconds in one update would cross the main room many times over
+        GameMap map = MapLoader.loadLevel1();
+        Player player = new Player(map, 142, 62);
+        map.setPlayer(player);
+        InputState input = new InputState();
+        input.set(InputState.RIGHT, true);
+        player.update(10f, input);
+        assertFalse(map.isColliding(player.getBounds()));
+        assertEquals("Flush against the right wall", 21 * TILE - SIZE, player.getPosition().x, 0);
+    }
+
+    private static void fuzz(CollisionGrid grid, Random random) {
+        float width = grid.getWidth() * TILE;
+        float height = grid.getHeight() * TILE;
+        int tested = 0;
+        while (tested < 20000) {
+            float x = random.nextFloat() * width;
+            float y = random.nextFloat() * height;
+            float distance = (random.nextFloat() - 0.5f) * 400;
+            if (grid.overlaps(x, y, SIZE, SIZE)) {
+                continue;
+            }
+            tested++;
+            boolean alongX = random.nextBoolean();
+            float from = alongX ? x : y;
+            float swept = alongX ? grid.sweepX(x, y, SIZE, SIZE, distance) : grid.sweepY(x, y, SIZE, SIZE, distance);
+            float walked = walk(grid, x, y, alongX, distance);
+            String move = (alongX ? "x" : "y") + " move of " + distance + " from " + x + "," + y;
+
+            assertFalse("Ends inside a wall after " + move,
+                alongX ? grid.overlaps(swept, y, SIZE, SIZE) : grid.overlaps(x, swept, SIZE, SIZE));
+            assertTrue("Goes too far after " + move, Math.abs(swept - from) <= Math.abs(distance) + 1e-3f);
+            assertEquals("Stops elsewhere than small steps after " + move, walked, swept, STEP + 0.01f);
+        }
+    }
+
+    private static float walk(CollisionGrid grid, float x, float y, boolean alongX, float distance) {
+        float from = alongX ? x : y;
+        float step = Math.signum(distance) * STEP;
+        float position = from;
+        while (Math.abs(position + step - from) <= Math.abs(distance)
+                && !(alongX ? grid.overlaps(position + step, y, SIZE, SIZE) : grid.overlaps(x, position + step, SIZE, SIZE))) {
+            position += step;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,123 @@
+package com.monkeyintrouble.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
+import org.junit.Test;
+
+public class HazardGridTest {
+    // Hazards move, are removed and are added at random, partly outside the world, and every
+    // query must return exactly the hazards a scan of all of them finds
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 150;
+    private static final int TILE = 32;
+
+    @Test
+    public void queriesMatchLinearScan() {
+        for (int count : new int[] {1, 10, 100, 2000}) {
+            fuzz(count, new Random(count));
+        }
+    }
+
+    @Test
+    public void findsHazardsOutsideTheWorld() {
+        HazardGrid grid = new HazardGrid(WIDTH, HEIGHT, TILE);
+        Rectangle left = new Rectangle(-100, 40, TILE, TILE);
+        Rectangle above = new Rectangle(300, HEIGHT * TILE + 70, TILE, TILE);
+        int leftId = grid.add(left, 0, 0);
+        int aboveId = grid.add(above, 0, 1);
+        IntArray out = new IntArray();
+
+        grid.query(new Rectangle(-90, 50, 8, 8), out);
+        assertEquals(1, out.size);
+        assertEquals(leftId, out.get(0));
+        grid.query(new Rectangle(310, HEIGHT * TILE + 80, 8, 8), out);
+        assertEquals(1, out.size);
+        assertEquals(aboveId, out.get(0));
+        grid.query(new Rectangle(10, 50, 8, 8), out);
+        assertEquals(0, out.size);
+    }
+
+    @Test
+    public void reusesRemovedIds() {
+        HazardGrid grid = new HazardGrid(WIDTH, HEIGHT, TILE);
+        int first = grid.add(new Rectangle(0, 0, TILE, TILE), 0, 0);
+        grid.add(new Rectangle(64, 0, TILE, TILE), 0, 1);
+        grid.remove(first);
+        assertEquals(1, grid.size());
+
+        Rectangle moved = new Rectangle(128, 128, TILE, TILE);
+        assertEquals(first, grid.add(moved, 1, 2));
+        assertEquals(1, grid.getKind(first));
+        assertEquals(2, grid.getOwner(first));
+        IntArray out = new IntArray();
+        grid.query(new Rectangle(0, 0, TILE, TILE), out);
+        assertEquals(0, out.size);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsHitboxesLargerThanATile() {
+        new HazardGrid(WIDTH, HEIGHT, TILE).add(new Rectangle(0, 0, TILE + 1, TILE), 0, 0);
+    }
+
+    private static void fuzz(int count, Random random) {
+        HazardGrid grid = new HazardGrid(WIDTH, HEIGHT, TILE);
+        Array<Rectangle> hitboxes = new Array<>();
+        IntArray ids = new IntArray();
+        for (int i = 0; i < count; i++) {
+            Rectangle hitbox = randomHitbox(random);
+            hitboxes.add(hitbox);
+            ids.add(grid.add(hitbox, 0, i));
+        }
+
+        IntArray found = new IntArray();
+        for (int step = 0; step < 20000; step++) {
+            int k = random.nextInt(hitboxes.size);
+            if (random.nextInt(10) == 0) {
+                grid.remove(ids.removeIndex(k));
+                hitboxes.removeIndex(k);
+                Rectangle hitbox = randomHitbox(random);
+                hitboxes.add(hitbox);
+                ids.add(grid.add(hitbox, 0, 0));
+            } else {
+                Rectangle hitbox = hitboxes.get(k);
+                hitbox.x += (random.nextFloat() - 0.5f) * 80;
+                hitbox.y += (random.nextFloat() - 0.5f) * 80;
+                grid.update(ids.get(k));
+            }
+
+            Rectangle query = new Rectangle(0, 0, 1 + random.nextFloat() * 3 * TILE, 1 + random.nextFloat() * 3 * TILE);
+            if (random.nextBoolean()) {
+                Rectangle near = hitboxes.get(random.nextInt(hitboxes.size));
+                query.setPosition(near.x + (random.nextFloat() - 0.5f) * 2 * TILE, near.y + (random.nextFloat() - 0.5f) * 2 * TILE);
+            } else {
+                query.setPosition(randomCoordinate(random, WIDTH), randomCoordinate(random, HEIGHT));
+            }
+            grid.query(query, found);
+
+            int expected = 0;
+            for (int i = 0; i < hitboxes.size; i++) {
+                if (hitboxes.get(i).overlaps(query)) {
+                    expected++;
+                    assertTrue("Missing hazard " + hitboxes.get(i) + " for " + query, found.contains(ids.get(i)));
+                }
+            }
+            assertEquals("Hazards found for " + query, expected, found.size);
+        }
+        assertEquals(count, grid.size());
+    }
+
+    // Up to two tiles past every edge of the world
+    private static Rectangle randomHitbox(Random random) {
+        float size = 1 + random.nextFloat() * (TILE - 1);
+        return new Rectangle(randomCoordinate(random, WIDTH), randomCoordinate(random, HEIGHT), size, size);
+    }
+
+    private static float randomCoordinate(Random random, int tiles) {
+        return (random.nextFloat() * (tiles + 4) - 2) * TILE;
+    }
+}
@@ -0,0 +1,104 @@
+package com.monkeyintrouble.map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.monkeyintrouble.entities.Player;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.world.GameWorld;
+import com.monkeyintrouble.world.InputState;
+import com.monkeyintrouble.world.ParallelSimulation;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class LevelFileTest {
+    // A compiled level must load into exactly the map that scanning its source builds
+    static {
+        EventLog.setLevel(EventLog.NONE);
+    }
+
+    @Test
+    public void level1LoadsAsScanned() throws IOException {
+        GameMap scanned = MapLoader.loadSource(MapLoader.LEVEL_1).build();
+        assertSameMap(scanned, MapLoader.loadLevel1());
+        assertSameMap(scanned, writeAndLoad(scanned));
+    }
+
+    @Test
+    public void generatedLevelLoadsAsScanned() throws IOException {
+        LevelGenerator.Settings settings = new LevelGenerator.Settings();
+        settings.roomCount = 200;
+        GameMap scanned = MapLoader.generateLevel(settings, 5);
+        assertSameMap(scanned, writeAndLoad(scanned));
+    }
+
+    @Test
+    public void compiledLevelPlaysAsScanned() throws IOException {
+        GameMap scanned = MapLoader.loadSource(MapLoader.LEVEL_1).build();
+        GameWorld expected = new GameWorld(scanned);
+        GameWorld actual = new GameWorld(writeAndLoad(scanned));
+        ParallelSimulation.RandomWalk expectedBot = new ParallelSimulation.RandomWalk(1);
+        ParallelSimulation.RandomWalk actualBot = new ParallelSimulation.RandomWalk(1);
+        InputState input = new InputState();
+        for (int tick = 0; tick < 5000; tick++) {
+            input.setButtons(expectedBot.nextButtons(expected));
+            expected.step(input);
+            input.setButtons(actualBot.nextButtons(actual));
+            actual.step(input);
+            Player want = expected.getPlayer();
+            Player got = actual.getPlayer();
+            assertEquals("x at tick " + tick, want.getPosition().x, got.getPosition().x, 0);
+            assertEquals("y at tick " + tick, want.getPosition().y, got.getPosition().y, 0);
+            assertEquals("hearts at tick " + tick, want.getHearts(), got.getHearts());
+            assertEquals("bananas at tick " + tick, want.getBananas(), got.getBananas());
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedLevels() throws IOException {
+        Path file = Files.createTempFile("truncated", LevelFile.EXTENSION);
+        try {
+            LevelFile.write(MapLoader.loadSource(MapLoader.LEVEL_1).build(), file);
+            Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 500));
+            LevelFile.load(file);
+            fail("Loaded a truncated level");
+        } catch (IOException e) {
+            assertEquals("Truncated level: " + file, e.getMessage());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        LevelFile.read(ByteBuffer.wrap("{\"rooms\": []}".getBytes()), "level.json");
+    }
+
+    private static GameMap writeAndLoad(GameMap map) throws IOException {
+        Path file = Files.createTempFile("level", LevelFile.EXTENSION);
+        try {
+            LevelFile.write(map, file);
+            return LevelFile.load(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertSameMap(GameMap expected, GameMap actual) {
+        assertEquals(expected.getStartX(), actual.getStartX(), 0);
+        assertEquals(expected.getStartY(), actual.getStartY(), 0);
+        assertArrayEquals(compiled(expected), compiled(actual));
+        assertEquals(expected.getLevelFingerprint(), actual.getLevelFingerprint());
+    }
+
+    private static byte[] compiled(GameMap map) {
+        ByteBuffer out = ByteBuffer.allocate(map.getCompiledBytes());
+        map.writeCompiled(out);
+        return out.array();
+    }
+}
@@ -0,0 +1,170 @@
+package com.monkeyintrouble.map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.monkeyintrouble.entities.BoxTrap;
+import com.monkeyintrouble.entities.FireHazard;
+import com.monkeyintrouble.entities.SawTrap;
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.world.GameWorld;
+import com.monkeyintrouble.world.InputState;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class ResetTest {
+    // Reset only rewinds what the journal recorded, so after doors open, boxes move and traps
+    // trigger it must still leave exactly the map a fresh load builds
+    static {
+        EventLog.setLevel(EventLog.NONE);
+    }
+
+    @Test
+    public void level1ResetsToFreshMap() {
+        GameWorld world = new GameWorld(MapLoader.loadLevel1());
+        GameMap map = world.getMap();
+        triggerBoxTrap(world);
+        play(world, 1);
+        assertTrue(map.getBoxTraps().first().isTriggered());
+        assertTrue(map.getGrid().getChangedCount() > 0);
+
+        map.reset();
+        assertSameState(MapLoader.loadLevel1(), map);
+    }
+
+    @Test
+    public void generatedLevelResetsToFreshMap() {
+        LevelGenerator.Settings settings = new LevelGenerator.Settings();
+        settings.roomCount = 50;
+        GameWorld world = new GameWorld(MapLoader.generateLevel(settings, 5));
+        GameMap map = world.getMap();
+        play(world, 2);
+        assertTrue(map.getGrid().getChangedCount() > 0);
+
+        map.reset();
+        assertSameState(MapLoader.generateLevel(settings, 5), map);
+    }
+
+    @Test
+    public void resetTwiceAfterPlayingAgain() {
+        GameWorld world = new GameWorld(MapLoader.loadLevel1());
+        GameMap map = world.getMap();
+        play(world, 3);
+        map.reset();
+        triggerBoxTrap(world);
+        play(world, 4);
+        map.reset();
+        assertSameState(MapLoader.loadLevel1(), map);
+    }
+
+    // Pushes level 1's box left along its row and then up onto the button of the box trap
+    private static void triggerBoxTrap(GameWorld world) {
+        GameMap.Box box = world.getMap().getBoxes().first();
+        BoxTrap trap = world.getMap().getBoxTraps().first();
+        InputState input = new InputState();
+        world.getPlayer().teleport(box.bounds.x + box.bounds.width + 2, box.bounds.y + 4);
+        input.set(InputState.LEFT, true);
+        for (int tick = 0; tick < 500 && box.bounds.x > trap.getButtonHitbox().x + 4; tick++) {
+            world.step(input);
+        }
+        world.getPlayer().teleport(box.bounds.x + 4, box.bounds.y - 24 - 0.5f);
+        input.setButtons(0);
+        input.set(InputState.UP, true);
+        for (int tick = 0; tick < 60 && !trap.isTriggered(); tick++) {
+            world.step(input);
+        }
+        assertTrue(trap.isTriggered());
+    }
+
+    // Random buttons with a teleport now and then, so the walk reaches doors, levers and
+    // boxes all over the level instead of bumping into the first wall
+    private static void play(GameWorld world, long seed) {
+        GameMap map = world.getMap();
+        Random random = new Random(seed);
+        InputState input = new InputState();
+        for (int tick = 0; tick < 20000; tick++) {
+            if (tick % 40 == 0) {
+                input.setButtons(random.nextInt(InputState.RESTART));
+            }
+            if (tick % 300 == 0) {
+                world.getPlayer().teleport(random.nextInt(map.getWidthInTiles()) * GameMap.TILE_SIZE + 4,
+                    random.nextInt(map.getHeightInTiles()) * GameMap.TILE_SIZE + 4);
+            }
+            world.step(input);
+        }
+    }
+
+    private static void assertSameState(GameMap expected, GameMap actual) {
+        assertArrayEquals(compiled(expected), compiled(actual));
+        assertArrayEquals(saved(expected), saved(actual));
+        Rectangle cell = new Rectangle(0, 0, GameMap.TILE_SIZE - 2, GameMap.TILE_SIZE - 2);
+        for (int row = 0; row < expected.getHeightInTiles(); row++) {
+            for (int col = 0; col < expected.getWidthInTiles(); col++) {
+                assertEquals("tile at " + col + "," + row,
+                    expected.getDisplayTile(col, row), actual.getDisplayTile(col, row));
+                cell.setPosition(col * GameMap.TILE_SIZE + 1, row * GameMap.TILE_SIZE + 1);
+                assertEquals("collision at " + col + "," + row,
+                    expected.isColliding(cell), actual.isColliding(cell));
+            }
+        }
+        // The scan above loaded every chunk, so all entities are listed, though in the order
+        // their chunks happened to load
+        Array<GameMap.Box> expectedBoxes = sorted(expected.getBoxes(), box -> box.bounds);
+        Array<GameMap.Box> actualBoxes = sorted(actual.getBoxes(), box -> box.bounds);
+        assertEquals(expectedBoxes.size, actualBoxes.size);
+        for (int i = 0; i < expectedBoxes.size; i++) {
+            assertEquals(expectedBoxes.get(i).bounds, actualBoxes.get(i).bounds);
+        }
+        Array<BoxTrap> expectedTraps = sorted(expected.getBoxTraps(), BoxTrap::getTrapHitbox);
+        Array<BoxTrap> actualTraps = sorted(actual.getBoxTraps(), BoxTrap::getTrapHitbox);
+        assertEquals(expectedTraps.size, actualTraps.size);
+        for (int i = 0; i < expectedTraps.size; i++) {
+            BoxTrap trap = actualTraps.get(i);
+            assertEquals(expectedTraps.get(i).getTrapHitbox(), trap.getTrapHitbox());
+            assertEquals(expectedTraps.get(i).isTriggered(), trap.isTriggered());
+            assertEquals(expected.isColliding(trap.getTrapHitbox()), actual.isColliding(trap.getTrapHitbox()));
+        }
+        Array<SawTrap> expectedSaws = sorted(expected.getSawTraps(), SawTrap::getHitbox);
+        Array<SawTrap> actualSaws = sorted(actual.getSawTraps(), SawTrap::getHitbox);
+        assertEquals(expectedSaws.size, actualSaws.size);
+        for (int i = 0; i < expectedSaws.size; i++) {
+            SawTrap saw = actualSaws.get(i);
+            assertEquals(expectedSaws.get(i).getHitbox(), saw.getHitbox());
+            assertEquals(expected.isCollidingWithSawTrap(saw.getHitbox()), actual.isCollidingWithSawTrap(saw.getHitbox()));
+        }
+        assertEquals(expected.getFireHazards().size, actual.getFireHazards().size);
+        for (int i = 0; i < expected.getFireHazards().size; i++) {
+            FireHazard fire = actual.getFireHazards().get(i);
+            assertEquals(expected.getFireHazards().get(i).getHitbox(), fire.getHitbox());
+            assertEquals(expected.getFireHazards().get(i).isActive(), fire.isActive());
+        }
+        assertEquals(expected.getBananas(), actual.getBananas());
+        assertEquals(expected.isGameWon(), actual.isGameWon());
+    }
+
+    // A copy ordered by position, bottom row first
+    private static <T> Array<T> sorted(Array<T> items, Function<T, Rectangle> bounds) {
+        Array<T> copy = new Array<>(items);
+        copy.sort(Comparator.comparingDouble((T item) -> bounds.apply(item).y)
+            .thenComparingDouble(item -> bounds.apply(item).x));
+        return copy;
+    }
+
+    private static byte[] compiled(GameMap map) {
+        ByteBuffer out = ByteBuffer.allocate(map.getCompiledBytes());
+        map.writeCompiled(out);
+        return out.array();
+    }
+
+    private static byte[] saved(GameMap map) {
+        ByteBuffer out = ByteBuffer.allocate(map.getSaveBytes());
+        map.save(out);
+        return out.array();
+    }
+}
@@ -0,0 +1,90 @@
+package com.monkeyintrouble.world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.map.LevelGenerator;
+import com.monkeyintrouble.map.MapLoader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class ReplayTest {
+    // A recorded run, written out and read back, must replay on a fresh copy of its level to
+    // the checksum taken while recording
+    static {
+        EventLog.setLevel(EventLog.NONE);
+    }
+
+    @Test
+    public void level1ReplaysToRecordedChecksum() throws IOException {
+        GameWorld recorded = new GameWorld(MapLoader.loadLevel1());
+        InputLog log = writeAndRead(record(recorded, 1));
+        assertTrue(log.isVerifiable());
+
+        Replay.Result result = Replay.run(new GameWorld(MapLoader.loadLevel1()), log);
+        assertTrue(result.checked);
+        assertTrue(result.matches);
+        assertEquals(log.getChecksum(), result.checksum);
+        assertEquals(log.size(), result.ticks);
+        assertEquals(recorded.getPlayer().getHearts(), result.hearts);
+        assertEquals(recorded.getPlayer().getBananas(), result.bananas);
+        assertEquals(recorded.getMap().isGameWon(), result.won);
+    }
+
+    @Test
+    public void generatedLevelReplaysToRecordedChecksum() throws IOException {
+        LevelGenerator.Settings settings = new LevelGenerator.Settings();
+        settings.roomCount = 50;
+        InputLog log = writeAndRead(record(new GameWorld(MapLoader.generateLevel(settings, 3)), 2));
+
+        Replay.Result result = Replay.run(new GameWorld(MapLoader.generateLevel(settings, 3)), log);
+        assertTrue(result.matches);
+        assertEquals(log.getChecksum(), result.checksum);
+    }
+
+    @Test
+    public void reportsChecksumMismatch() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        record(new GameWorld(MapLoader.loadLevel1()), 1).write(out);
+        byte[] bytes = out.toByteArray();
+        // Last byte of the checksum: magic, version, tick length, empty level name,
+        // recorded flag and fingerprint come first
+        bytes[4 + 2 + 4 + 2 + 1 + 8 + 7] ^= 1;
+        InputLog log = InputLog.read(new ByteArrayInputStream(bytes));
+
+        Replay.Result result = Replay.run(new GameWorld(MapLoader.loadLevel1()), log);
+        assertTrue(result.checked);
+        assertFalse(result.matches);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherLevels() throws IOException {
+        InputLog log = writeAndRead(record(new GameWorld(MapLoader.loadLevel1()), 1));
+        LevelGenerator.Settings settings = new LevelGenerator.Settings();
+        settings.roomCount = 5;
+        Replay.run(new GameWorld(MapLoader.generateLevel(settings, 1)), log);
+    }
+
+    private static InputLog record(GameWorld world, long seed) {
+        InputLog log = new InputLog();
+        world.setRecording(log);
+        ParallelSimulation.RandomWalk bot = new ParallelSimulation.RandomWalk(seed);
+        InputState input = new InputState();
+        for (int tick = 0; tick < 5000; tick++) {
+            input.setButtons(bot.nextButtons(world));
+            world.step(input);
+        }
+        world.setRecording(null);
+        return log;
+    }
+
+    private static InputLog writeAndRead(InputLog log) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.write(out);
+        return InputLog.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
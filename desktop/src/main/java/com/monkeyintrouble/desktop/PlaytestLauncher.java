@@ -0,0 +1,88 @@
+package com.monkeyintrouble.desktop;
+
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.map.MapLoader;
+import com.monkeyintrouble.screens.GameScreen;
+import com.monkeyintrouble.world.GameWorld;
+import com.monkeyintrouble.world.InputLog;
+import com.monkeyintrouble.world.ParallelSimulation;
+import com.monkeyintrouble.world.Replay;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+public class PlaytestLauncher {
+    // Plays many sessions at once without a window, each a random-walking bot in a world of
+    // its own, spread over every core, and prints one line per session and the combined
+    // ticks per second. Sessions play on level 1, or on the level given with -Dmonkey.level
+    // like the game. With --record each session is saved as a .replay that ReplayLauncher
+    // plays back to the same checksum. Logging is off unless -Dmonkey.log is given.
+    private static final String USAGE = "Usage: PlaytestLauncher [--instances n] [--ticks n] [--threads n]"
+        + " [--seed n] [--record directory]";
+
+    public static void main(String[] args) throws IOException {
+        int instances = 64;
+        int ticks = 60 * 60;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        File recordDir = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--instances": instances = Integer.parseInt(value); break;
+                    case "--ticks": ticks = Integer.parseInt(value); break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    case "--record": recordDir = new File(value); break;
+                    default: throw new IllegalArgumentException(args[i]);
+                }
+                i++;
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (System.getProperty("monkey.log") == null) {
+            EventLog.setLevel(EventLog.NONE);
+        }
+        if (recordDir != null && !recordDir.isDirectory() && !recordDir.mkdirs()) {
+            throw new IOException("Cannot create " + recordDir);
+        }
+
+        String level = GameScreen.levelName();
+        // Builds and caches a Tiled level once, before the sessions load it side by side
+        MapLoader.loadNamedLevel(level);
+        long baseSeed = seed;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ParallelSimulation.Report report;
+        try {
+            report = ParallelSimulation.run(instances, ticks,
+                instance -> new GameWorld(MapLoader.loadNamedLevel(level)),
+                instance -> new ParallelSimulation.RandomWalk(baseSeed + instance),
+                recordDir != null, pool);
+        } finally {
+            pool.shutdown();
+        }
+        EventLog.drain(System.out);
+
+        for (int i = 0; i < instances; i++) {
+            Replay.Result result = report.results[i];
+            String name = "playtest-" + i + ".replay";
+            if (recordDir != null) {
+                InputLog recording = report.recordings[i];
+                recording.setLevelName(level);
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(recordDir, name)))) {
+                    recording.write(out);
+                }
+            }
+            System.out.printf("%s ticks=%d checksum=%016x hearts=%d bananas=%d won=%b%n",
+                name, result.ticks, result.checksum, result.hearts, result.bananas, result.won);
+        }
+        System.out.printf("%d sessions, %d ticks on %d threads in %.1f ms, %.0f ticks/s%n",
+            instances, report.ticks, report.threads, report.nanos / 1e6, report.getTicksPerSecond());
+    }
+}
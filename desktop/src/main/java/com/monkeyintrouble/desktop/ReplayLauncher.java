@@ -0,0 +1,81 @@
+package com.monkeyintrouble.desktop;
+
+import com.monkeyintrouble.log.EventLog;
+import com.monkeyintrouble.map.MapLoader;
+import com.monkeyintrouble.screens.GameScreen;
+import com.monkeyintrouble.world.GameWorld;
+import com.monkeyintrouble.world.InputLog;
+import com.monkeyintrouble.world.Replay;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ReplayLauncher {
+    // Replays recorded sessions without a window, at full speed, and prints one line per
+    // session. Arguments are .replay files or directories holding them. Sessions play on the
+    // level they were recorded on, or on the level given with -Dmonkey.level like the game.
+    // A session whose level or checksum does not match its recording fails the run with
+    // exit status 1, so a behaviour change shows up as a failed replay.
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayLauncher <file.replay | directory>...");
+            System.exit(2);
+        }
+        List<File> files = new ArrayList<>();
+        for (String arg : args) {
+            collect(new File(arg), files);
+        }
+        EventLog.setLevel(EventLog.NONE);
+        boolean levelGiven = System.getProperty(GameScreen.LEVEL_PROPERTY) != null;
+        int failed = 0;
+
+        long totalTicks = 0;
+        long totalNanos = 0;
+        for (File file : files) {
+            InputLog log;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                log = InputLog.read(in);
+            }
+            String level = levelGiven || log.getLevelName() == null ? GameScreen.levelName() : log.getLevelName();
+            Replay.Result result;
+            try {
+                result = Replay.run(new GameWorld(MapLoader.loadNamedLevel(level)), log);
+            } catch (RuntimeException e) {
+                System.out.printf("%s FAILED: %s%n", file.getName(), e.getMessage());
+                failed++;
+                continue;
+            }
+            totalTicks += result.ticks;
+            totalNanos += result.nanos;
+            String verdict = !result.checked ? "unchecked"
+                : result.matches ? "ok" : String.format("MISMATCH, recorded %016x", log.getChecksum());
+            System.out.printf("%s ticks=%d checksum=%016x hearts=%d bananas=%d won=%b %.0f ticks/s %s%n",
+                file.getName(), result.ticks, result.checksum, result.hearts, result.bananas, result.won,
+                result.getTicksPerSecond(), verdict);
+            if (!result.matches) {
+                failed++;
+            }
+        }
+        System.out.printf("%d sessions, %d ticks in %.1f ms, %d failed%n", files.size(), totalTicks, totalNanos / 1e6, failed);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void collect(File file, List<File> files) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles((dir, name) -> name.endsWith(".replay"));
+            if (children != null) {
+                Arrays.sort(children);
+                files.addAll(Arrays.asList(children));
+            }
+        } else {
+            files.add(file);
+        }
+    }
+}